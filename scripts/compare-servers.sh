@@ -0,0 +1,26 @@
+#!/usr/bin/env bash
+# Runs UserApiLoadTest in report-only mode against each embedded container / HTTP version
+# combination with the "performance" Spring profile. Prints the machine, load parameters and
+# latency lines of each run and appends them to target/server-comparison.txt.
+# Extra arguments are passed to Maven, e.g. -Dload.rate=200 -Dload.durationSeconds=60
+set -euo pipefail
+cd "$(dirname "$0")/.."
+
+results=target/server-comparison.txt
+mkdir -p target
+echo "# $(date -u +%Y-%m-%dT%H:%M:%SZ) $*" >> "$results"
+
+for container in tomcat undertow jetty; do
+  profiles="load-test"
+  if [ "$container" != "tomcat" ]; then
+    profiles="$profiles,$container"
+  fi
+  for http in HTTP_1_1 HTTP_2; do
+    echo "== $container $http" | tee -a "$results"
+    ./mvnw test -P"$profiles" \
+      -Dspring.profiles.active=performance \
+      -Dload.httpVersion="$http" \
+      -Dload.reportOnly=true \
+      "$@" | grep -E '^(machine|load|op|ALL) ' | tee -a "$results"
+  done
+done
@@ -0,0 +1,43 @@
+package com.example.app.config;
+
+import com.example.app.repository.JpaUserStorage;
+import com.example.app.repository.ShardedUserStorage;
+import com.example.app.repository.UserIdGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Enabled with {@code app.sharding.enabled=true}. Builds one datasource per entry of
+ * {@code app.sharding.shards} and stores users in the hash-partitioned
+ * {@link ShardedUserStorage} instead of {@link JpaUserStorage}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    private static final String SHARDS_PREFIX = "app.sharding.shards";
+
+    @Bean
+    public ShardedUserStorage shardedUserStorage(Environment environment,
+                                                 @Value("${app.sharding.node-id:0}") long nodeId) {
+        List<DataSource> dataSources = Binder.get(environment)
+                .bind(SHARDS_PREFIX, Bindable.listOf(DataSourceProperties.class))
+                .orElseThrow(() -> new IllegalStateException(SHARDS_PREFIX + " must list at least one datasource"))
+                .stream()
+                .map(properties -> (DataSource) properties.initializeDataSourceBuilder().build())
+                .toList();
+
+        ShardedUserStorage storage = new ShardedUserStorage(dataSources, new UserIdGenerator(nodeId));
+        storage.createSchema();
+        return storage;
+    }
+}
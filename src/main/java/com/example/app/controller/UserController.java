@@ -1,11 +1,19 @@
 package com.example.app.controller;
 
+import com.example.app.dto.UserBatchRequest;
+import com.example.app.dto.UserBatchResponse;
 import com.example.app.dto.UserDto;
 import com.example.app.dto.UserResponse;
+import com.example.app.dto.UserStatsResponse;
+import com.example.app.dto.UserTransferReport;
+import com.example.app.service.UserBulkService;
 import com.example.app.service.UserService;
+import com.example.app.service.UserStatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,7 +23,11 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
 import java.util.List;
 
 @RestController
@@ -24,6 +36,8 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserBulkService userBulkService;
+    private final UserStatsService userStatsService;
 
     // Get all users
     @GetMapping("/all")
@@ -31,12 +45,24 @@ public class UserController {
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
+    // Get the total user count and related aggregates
+    @GetMapping("/stats")
+    public ResponseEntity<UserStatsResponse> getUserStats() {
+        return ResponseEntity.ok(userStatsService.getStats());
+    }
+
     // Get a specific user by ID
     @GetMapping("/{userId}")
     public ResponseEntity<UserResponse> getUserById(@PathVariable Long userId) {
         return ResponseEntity.ok(userService.getUserById(userId));
     }
 
+    // Get many users by ID in a single call
+    @PostMapping("/batch-get")
+    public ResponseEntity<UserBatchResponse> getUsersByIds(@RequestBody UserBatchRequest request) {
+        return ResponseEntity.ok(userService.getUsersByIds(request.getIds()));
+    }
+
     // Create a new user
     @PostMapping("/add")
     public ResponseEntity<UserResponse> createUser(@RequestBody UserDto user) {
@@ -54,4 +80,20 @@ public class UserController {
     public ResponseEntity<UserResponse> deleteUser(@PathVariable Long userId) {
         return ResponseEntity.ok(userService.deleteUserById(userId));
     }
+
+    // Stream every user out in the binary bulk format
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> userBulkService.exportUsers(Channels.newChannel(outputStream));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.bin\"")
+                .body(body);
+    }
+
+    // Load users from a file produced by the export endpoint
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UserTransferReport> importUsers(InputStream body) throws IOException {
+        return ResponseEntity.ok(userBulkService.importUsers(Channels.newChannel(body)));
+    }
 }
\ No newline at end of file
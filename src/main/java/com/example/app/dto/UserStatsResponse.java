@@ -0,0 +1,19 @@
+package com.example.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatsResponse {
+    private long totalUsers;
+    private long usersAddedSinceStartup;
+    private long usersDeletedSinceStartup;
+    private Instant lastReconciledAt;
+}
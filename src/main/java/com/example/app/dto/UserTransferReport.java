@@ -0,0 +1,17 @@
+package com.example.app.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserTransferReport {
+    private long rows;
+    private long bytes;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+}
@@ -5,11 +5,22 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.ToString;
+import org.hibernate.annotations.SQLRestriction;
 
+import java.time.Instant;
+
+/**
+ * Deleted users are soft-deleted: {@code deleted_at} is set and the row is hidden from
+ * every entity query until the background purger removes it. Live rows keep
+ * {@code deleted_at} NULL, so on databases with partial indexes the index can be
+ * declared {@code WHERE deleted_at IS NOT NULL} and stays as small as the purge backlog.
+ */
 @Entity
-@Table(name = "my_user")
+@Table(name = "my_user", indexes = @Index(name = "idx_my_user_deleted_at", columnList = "deleted_at"))
+@SQLRestriction("deleted_at IS NULL")
 @ToString(callSuper = true)
 public class User {
     @Id
@@ -23,6 +34,10 @@ public class User {
     @Column(name = "password")
     private String password;
 
+    // written only by the soft-delete query, so saving a stale entity can't clear it
+    @Column(name = "deleted_at", updatable = false)
+    private Instant deletedAt;
+
     public User(String userName, String password) {
         this.userName = userName;
         this.password = password;
@@ -54,4 +69,12 @@ public class User {
     public void setPassword(String password) {
         this.password = password;
     }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(Instant deletedAt) {
+        this.deletedAt = deletedAt;
+    }
 }
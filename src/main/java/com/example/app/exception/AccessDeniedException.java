@@ -1,7 +1,14 @@
 package com.example.app.exception;
 
+/**
+ * Thrown when the caller lacks the role an operation requires. Stackless, so the
+ * constant-message {@link #ROLE_REQUIRED} instance can be shared across threads.
+ */
 public class AccessDeniedException extends RuntimeException {
+    public static final AccessDeniedException ROLE_REQUIRED =
+            new AccessDeniedException("Access denied. User does not have the required role.");
+
     public AccessDeniedException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
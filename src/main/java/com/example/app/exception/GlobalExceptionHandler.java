@@ -1,66 +1,108 @@
 package com.example.app.exception;
 
+import com.example.app.dto.UserErrorResponse;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.BindException;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
-import java.util.HashMap;
-import java.util.Map;
-
+/**
+ * Maps exceptions to a uniform {@link UserErrorResponse} body. Responses whose content
+ * never varies are built once and reused; the bodies are only ever serialized, never mutated.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    public static final String USER_NOT_FOUND = "USER_NOT_FOUND";
+    public static final String RESOURCE_NOT_FOUND = "RESOURCE_NOT_FOUND";
+    public static final String ACCESS_DENIED = "ACCESS_DENIED";
+    public static final String VALIDATION_FAILED = "VALIDATION_FAILED";
+    public static final String IMPORT_FAILED = "IMPORT_FAILED";
+    public static final String INTERNAL_ERROR = "INTERNAL_ERROR";
+
+    private static final ResponseEntity<UserErrorResponse> ACCESS_DENIED_RESPONSE =
+            errorResponse(HttpStatus.FORBIDDEN, AccessDeniedException.ROLE_REQUIRED.getMessage(), ACCESS_DENIED);
+
+    private static final ResponseEntity<UserErrorResponse> INTERNAL_ERROR_RESPONSE =
+            errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "An internal server error occurred", INTERNAL_ERROR);
+
     @ExceptionHandler(ResourceNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
-    public ResponseEntity<String> handleResourceNotFoundException(ResourceNotFoundException ex) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    public ResponseEntity<UserErrorResponse> handleResourceNotFoundException(ResourceNotFoundException ex) {
+        return errorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), RESOURCE_NOT_FOUND);
     }
 
     @ExceptionHandler(UserNotFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
-    public ResponseEntity<String> handleUserNotFoundException(UserNotFoundException ex) {
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    public ResponseEntity<UserErrorResponse> handleUserNotFoundException(UserNotFoundException ex) {
+        return errorResponse(HttpStatus.NOT_FOUND, ex.getMessage(), USER_NOT_FOUND);
     }
 
     @ExceptionHandler(AccessDeniedException.class)
     @ResponseStatus(HttpStatus.FORBIDDEN)
-    public ResponseEntity<String> handleAccessDeniedException(AccessDeniedException ex) {
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
+    public ResponseEntity<UserErrorResponse> handleAccessDeniedException(AccessDeniedException ex) {
+        if (ex == AccessDeniedException.ROLE_REQUIRED) {
+            return ACCESS_DENIED_RESPONSE;
+        }
+        return errorResponse(HttpStatus.FORBIDDEN, ex.getMessage(), ACCESS_DENIED);
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ResponseEntity<UserErrorResponse> handleInvalidRequestException(InvalidRequestException ex) {
+        return errorResponse(HttpStatus.BAD_REQUEST, ex.getMessage(), VALIDATION_FAILED);
+    }
+
+    // a file that can't be decoded is the caller's fault; a batch that failed to store is ours
+    @ExceptionHandler(UserImportException.class)
+    public ResponseEntity<UserErrorResponse> handleUserImportException(UserImportException ex) {
+        HttpStatus status = ex.isInvalidFile() ? HttpStatus.BAD_REQUEST : HttpStatus.INTERNAL_SERVER_ERROR;
+        return errorResponse(status, ex.getMessage(), IMPORT_FAILED);
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ResponseEntity<Map<String, String>> handleValidationException(MethodArgumentNotValidException ex) {
-        Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
-            String fieldName = ((FieldError) error).getField();
-            String errorMessage = error.getDefaultMessage();
-            errors.put(fieldName, errorMessage);
-        });
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
+    public ResponseEntity<UserErrorResponse> handleValidationException(MethodArgumentNotValidException ex) {
+        return validationResponse(ex.getBindingResult());
     }
 
     @ExceptionHandler(BindException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
-    public ResponseEntity<Map<String, String>> handleBindException(BindException ex) {
-        Map<String, String> errors = new HashMap<>();
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
-            String fieldName = ((FieldError) error).getField();
-            String errorMessage = error.getDefaultMessage();
-            errors.put(fieldName, errorMessage);
-        });
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
+    public ResponseEntity<UserErrorResponse> handleBindException(BindException ex) {
+        return validationResponse(ex.getBindingResult());
     }
 
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
-    public ResponseEntity<String> handleGenericException(Exception ex) {
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An internal server error occurred");
+    public ResponseEntity<UserErrorResponse> handleGenericException(Exception ex) {
+        return INTERNAL_ERROR_RESPONSE;
     }
-}
 
+    // collapses field errors into "field: message; field: message"
+    private static ResponseEntity<UserErrorResponse> validationResponse(BindingResult bindingResult) {
+        StringBuilder message = new StringBuilder();
+        for (ObjectError error : bindingResult.getAllErrors()) {
+            if (message.length() > 0) {
+                message.append("; ");
+            }
+            if (error instanceof FieldError fieldError) {
+                message.append(fieldError.getField()).append(": ");
+            }
+            message.append(error.getDefaultMessage());
+        }
+        return errorResponse(HttpStatus.BAD_REQUEST, message.toString(), VALIDATION_FAILED);
+    }
+
+    private static ResponseEntity<UserErrorResponse> errorResponse(HttpStatus status, String message, String code) {
+        return ResponseEntity.status(status).body(UserErrorResponse.builder()
+                .errorMessage(message)
+                .errorCode(code)
+                .build());
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.app.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a bulk import stops part-way. Rows from batches before the failure stay
+ * committed; the message says how many and which records were not imported.
+ */
+public class UserImportException extends RuntimeException {
+    private final long committedRows;
+
+    public UserImportException(String message, long committedRows, Throwable cause) {
+        super(message, cause);
+        this.committedRows = committedRows;
+    }
+
+    public long getCommittedRows() {
+        return committedRows;
+    }
+
+    /**
+     * True if the file itself could not be decoded, false if storing a batch failed.
+     */
+    public boolean isInvalidFile() {
+        return getCause() instanceof IOException;
+    }
+}
@@ -1,7 +1,32 @@
 package com.example.app.exception;
 
+/**
+ * Thrown when a user ID does not resolve. Does not capture a stack trace, and the
+ * message is only built if somebody asks for it, since bad IDs are routine traffic
+ * rather than programming errors.
+ */
 public class UserNotFoundException extends RuntimeException {
+    private static final String MESSAGE_PREFIX = "User not found with id: ";
+
+    private final Long userId;
+
+    public UserNotFoundException(Long userId) {
+        super(null, null, false, false);
+        this.userId = userId;
+    }
+
     public UserNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.userId = null;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    @Override
+    public String getMessage() {
+        String message = super.getMessage();
+        return message != null ? message : MESSAGE_PREFIX + userId;
     }
 }
@@ -0,0 +1,100 @@
+package com.example.app.repository;
+
+import com.example.app.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * {@link UserStorage} over {@link UserRepository}. Reads run in read-only transactions: the JPA
+ * transaction manager then switches the Hibernate session to manual flush and read-only mode
+ * (no dirty-checking snapshots), and {@link com.example.app.config.ReadReplicaDataSourceConfig}
+ * may route them to a replica. An update locks the live row, then saves it in the same
+ * transaction, so a concurrent soft delete waits for it and is never undone by it. Bulk
+ * reads and writes go through {@link UserBulkRepository} and bypass the persistence context.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class JpaUserStorage implements UserStorage {
+
+    private final UserRepository userRepository;
+    private final UserBulkRepository userBulkRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<User> findById(Long userId) {
+        return userRepository.findById(userId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAll() {
+        return userRepository.findAll();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> findAllById(Iterable<Long> userIds) {
+        return userRepository.findAllById(userIds);
+    }
+
+    @Override
+    @Transactional
+    public User insert(User user) {
+        return userRepository.save(user);
+    }
+
+    @Override
+    @Transactional
+    public Optional<User> update(Long userId, Consumer<User> changes) {
+        return userRepository.findByIdForUpdate(userId).map(user -> {
+            changes.accept(user);
+            return userRepository.save(user);
+        });
+    }
+
+    @Override
+    public boolean softDeleteById(Long userId, Instant deletedAt) {
+        return userRepository.softDeleteById(userId, deletedAt) > 0;
+    }
+
+    @Override
+    public int purgeDeletedBefore(Instant cutoff, int limit) {
+        return userRepository.purgeDeletedBefore(cutoff, limit);
+    }
+
+    // read-write on purpose: the stats reconciliation must count the primary, not a lagging replica
+    @Override
+    @Transactional
+    public long count() {
+        return userRepository.count();
+    }
+
+    @Override
+    public long countDeleted() {
+        return userRepository.countDeleted();
+    }
+
+    @Override
+    public void streamAll(int fetchSize, Consumer<User> consumer) {
+        userBulkRepository.streamAll(fetchSize, consumer);
+    }
+
+    @Override
+    public void insertAll(List<User> users) {
+        userBulkRepository.batchInsert(users);
+    }
+
+    @Override
+    public void reserveInsertedIds() {
+        userBulkRepository.resetIdentity();
+    }
+}
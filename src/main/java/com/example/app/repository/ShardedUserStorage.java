@@ -0,0 +1,355 @@
+package com.example.app.repository;
+
+import com.example.app.entity.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Stores users hash-partitioned by ID across N databases, each holding its own
+ * {@code my_user} table. Single-user operations go to exactly one shard; list, count and
+ * multi-ID lookups fan out to the shards in parallel and merge the results in ID order.
+ * IDs are assigned up front by {@link UserIdGenerator} since the shard must be known
+ * before the insert. Bulk export streams all shards merged by ID; bulk import routes each
+ * user of a batch to its shard.
+ *
+ * <p>Each write runs in a transaction on the one shard that owns the user; nothing here
+ * uses the JPA transaction manager or {@code spring.datasource}. There are no cross-shard
+ * transactions: a fan-out read is not a consistent snapshot (a count taken while a write
+ * commits may or may not include it), and writes to users on different shards can't commit
+ * or roll back together.
+ */
+@Slf4j
+public class ShardedUserStorage implements UserStorage, DisposableBean {
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS my_user (id BIGINT NOT NULL PRIMARY KEY, "
+            + "user_name VARCHAR(255), password VARCHAR(255), deleted_at TIMESTAMP WITH TIME ZONE)";
+    private static final String CREATE_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_my_user_deleted_at ON my_user (deleted_at)";
+    private static final String INSERT_SQL = "INSERT INTO my_user (id, user_name, password) VALUES (?, ?, ?)";
+    private static final String SELECT_COLUMNS = "SELECT id, user_name, password FROM my_user";
+    private static final String LIVE = " WHERE deleted_at IS NULL";
+    private static final String SELECT_BY_ID_SQL = SELECT_COLUMNS + LIVE + " AND id = ?";
+    private static final String SELECT_FOR_UPDATE_SQL = SELECT_BY_ID_SQL + " FOR UPDATE";
+    private static final String UPDATE_SQL = "UPDATE my_user SET user_name = ?, password = ? WHERE id = ? AND deleted_at IS NULL";
+    private static final String SELECT_ALL_SQL = SELECT_COLUMNS + LIVE + " ORDER BY id";
+    private static final String COUNT_SQL = "SELECT COUNT(*) FROM my_user" + LIVE;
+    private static final String SOFT_DELETE_SQL = "UPDATE my_user SET deleted_at = ? WHERE id = ? AND deleted_at IS NULL";
+    private static final String PURGE_SQL = "DELETE FROM my_user WHERE id IN "
+            + "(SELECT id FROM my_user WHERE deleted_at < ? ORDER BY deleted_at LIMIT ?)";
+    private static final String COUNT_DELETED_SQL = "SELECT COUNT(*) FROM my_user WHERE deleted_at IS NOT NULL";
+
+    private static final RowMapper<User> USER_ROW_MAPPER = (resultSet, rowNum) -> {
+        User user = new User(resultSet.getString(2), resultSet.getString(3));
+        user.setId(resultSet.getLong(1));
+        return user;
+    };
+
+    private final List<DataSource> dataSources;
+    private final List<JdbcTemplate> shards;
+    private final List<TransactionTemplate> transactions;
+    private final UserIdGenerator idGenerator;
+    private final ExecutorService executor;
+    private final AtomicInteger purgeRound = new AtomicInteger();
+
+    public ShardedUserStorage(List<DataSource> dataSources, UserIdGenerator idGenerator) {
+        this.dataSources = List.copyOf(dataSources);
+        this.shards = dataSources.stream().map(JdbcTemplate::new).toList();
+        this.transactions = dataSources.stream()
+                .map(dataSource -> new TransactionTemplate(new DataSourceTransactionManager(dataSource)))
+                .toList();
+        this.idGenerator = idGenerator;
+        this.executor = Executors.newFixedThreadPool(dataSources.size());
+    }
+
+    public void createSchema() {
+        shards.forEach(shard -> {
+            shard.execute(CREATE_TABLE_SQL);
+            shard.execute(CREATE_INDEX_SQL);
+        });
+        log.info("User storage partitioned across {} shards", shards.size());
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Maps an ID to its shard. IDs are mixed first because the low bits of generated IDs
+     * (the per-millisecond sequence) are mostly zero at low write rates.
+     */
+    public int shardFor(long userId) {
+        long mixed = userId;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xff51afd7ed558ccdL;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        mixed = mixed ^ (mixed >>> 33);
+        return (int) Math.floorMod(mixed, (long) shards.size());
+    }
+
+    @Override
+    public User insert(User user) {
+        if (user.getId() == null) {
+            user.setId(idGenerator.nextId());
+        }
+        shard(user.getId()).update(INSERT_SQL, user.getId(), user.getUserName(), user.getPassword());
+        return user;
+    }
+
+    /**
+     * Locks the row, applies the changes and writes them back in one transaction on the
+     * user's shard. The update only matches a live row, so it can never bring back a user
+     * that was deleted or purged meanwhile.
+     */
+    @Override
+    public Optional<User> update(Long userId, Consumer<User> changes) {
+        int index = shardFor(userId);
+        JdbcTemplate shard = shards.get(index);
+        return transactions.get(index).execute(status -> {
+            Optional<User> user = shard.query(SELECT_FOR_UPDATE_SQL, USER_ROW_MAPPER, userId).stream().findFirst();
+            user.ifPresent(existing -> {
+                changes.accept(existing);
+                shard.update(UPDATE_SQL, existing.getUserName(), existing.getPassword(), userId);
+            });
+            return user;
+        });
+    }
+
+    @Override
+    public Optional<User> findById(Long userId) {
+        return shard(userId).query(SELECT_BY_ID_SQL, USER_ROW_MAPPER, userId).stream().findFirst();
+    }
+
+    @Override
+    public List<User> findAll() {
+        return mergeById(scatter(allShards(), index -> shards.get(index).query(SELECT_ALL_SQL, USER_ROW_MAPPER)));
+    }
+
+    @Override
+    public List<User> findAllById(Iterable<Long> userIds) {
+        Map<Integer, List<Long>> idsByShard = new TreeMap<>();
+        for (Long userId : userIds) {
+            idsByShard.computeIfAbsent(shardFor(userId), index -> new ArrayList<>()).add(userId);
+        }
+        return mergeById(scatter(new ArrayList<>(idsByShard.keySet()), index -> {
+            List<Long> ids = idsByShard.get(index);
+            String sql = SELECT_COLUMNS + LIVE + " AND id IN (" + String.join(",", Collections.nCopies(ids.size(), "?"))
+                    + ") ORDER BY id";
+            return shards.get(index).query(sql, USER_ROW_MAPPER, ids.toArray());
+        }));
+    }
+
+    @Override
+    public long count() {
+        return scatter(allShards(), index -> shards.get(index).queryForObject(COUNT_SQL, Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    @Override
+    public boolean softDeleteById(Long userId, Instant deletedAt) {
+        return shard(userId).update(SOFT_DELETE_SQL, Timestamp.from(deletedAt), userId) > 0;
+    }
+
+    /**
+     * Purges up to {@code limit} tombstones older than {@code cutoff} across all shards together.
+     * Each shard gets {@code limit / N}; the remainder goes to different shards on each call,
+     * so even a limit below the shard count reaches every shard over time. A shard with fewer
+     * tombstones than its share does not pass the rest on, so one call may purge less than
+     * {@code limit} while others still have a backlog.
+     */
+    @Override
+    public int purgeDeletedBefore(Instant cutoff, int limit) {
+        int shardCount = shards.size();
+        int firstWithExtra = Math.floorMod(purgeRound.getAndIncrement(), shardCount);
+        List<Integer> quotas = new ArrayList<>(shardCount);
+        List<Integer> indexes = new ArrayList<>(shardCount);
+        for (int index = 0; index < shardCount; index++) {
+            int quota = limit / shardCount + (Math.floorMod(index - firstWithExtra, shardCount) < limit % shardCount ? 1 : 0);
+            quotas.add(quota);
+            if (quota > 0) {
+                indexes.add(index);
+            }
+        }
+
+        Timestamp cutoffTimestamp = Timestamp.from(cutoff);
+        return scatter(indexes, index -> shards.get(index).update(PURGE_SQL, cutoffTimestamp, quotas.get(index)))
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+    }
+
+    @Override
+    public long countDeleted() {
+        return scatter(allShards(), index -> shards.get(index).queryForObject(COUNT_DELETED_SQL, Long.class))
+                .stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Opens a forward-only cursor on every shard at once and merges them by ID, so the export
+     * comes out in the same order as {@link #findAll} while holding only one fetch per shard
+     * in memory. Each cursor holds a connection of its shard until the stream is done.
+     */
+    @Override
+    public void streamAll(int fetchSize, Consumer<User> consumer) {
+        List<Stream<User>> cursors = new ArrayList<>(shards.size());
+        try {
+            for (JdbcTemplate shard : shards) {
+                cursors.add(shard.queryForStream(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SELECT_ALL_SQL,
+                            ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                }, USER_ROW_MAPPER));
+            }
+            mergeById(cursors.stream().map(Stream::iterator).toList(), consumer);
+        } finally {
+            cursors.forEach(Stream::close);
+        }
+    }
+
+    /**
+     * Splits the batch by shard and inserts each part in one transaction on its shard, all
+     * shards in parallel.
+     */
+    @Override
+    public void insertAll(List<User> users) {
+        Map<Integer, List<User>> usersByShard = new TreeMap<>();
+        for (User user : users) {
+            usersByShard.computeIfAbsent(shardFor(user.getId()), index -> new ArrayList<>()).add(user);
+        }
+        scatter(new ArrayList<>(usersByShard.keySet()), index -> {
+            List<User> part = usersByShard.get(index);
+            return transactions.get(index).execute(status -> shards.get(index).batchUpdate(INSERT_SQL, part, part.size(),
+                    (statement, user) -> {
+                        statement.setLong(1, user.getId());
+                        statement.setString(2, user.getUserName());
+                        statement.setString(3, user.getPassword());
+                    }));
+        });
+    }
+
+    /**
+     * Nothing to reserve: generated IDs start with the current time, so they lie above the
+     * IDs of any export taken earlier, whether from this storage or from the JPA table.
+     */
+    @Override
+    public void reserveInsertedIds() {
+    }
+
+    private JdbcTemplate shard(Long userId) {
+        return shards.get(shardFor(userId));
+    }
+
+    private List<Integer> allShards() {
+        List<Integer> indexes = new ArrayList<>(shards.size());
+        for (int i = 0; i < shards.size(); i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    // runs the query on each shard in parallel and waits for all of them
+    private <T> List<T> scatter(List<Integer> shardIndexes, IntFunction<T> query) {
+        List<CompletableFuture<T>> futures = shardIndexes.stream()
+                .map(index -> CompletableFuture.supplyAsync(() -> query.apply(index), executor))
+                .toList();
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    // k-way merge of per-shard lists that are each already sorted by ID
+    private static List<User> mergeById(List<List<User>> sortedLists) {
+        List<User> merged = new ArrayList<>(sortedLists.stream().mapToInt(List::size).sum());
+        mergeById(sortedLists.stream().map(List::iterator).toList(), merged::add);
+        return merged;
+    }
+
+    private static void mergeById(List<Iterator<User>> sortedIterators, Consumer<User> consumer) {
+        PriorityQueue<Cursor> heads = new PriorityQueue<>(Comparator.comparing(Cursor::peekId));
+        for (Iterator<User> iterator : sortedIterators) {
+            if (iterator.hasNext()) {
+                heads.add(new Cursor(iterator));
+            }
+        }
+        while (!heads.isEmpty()) {
+            Cursor head = heads.poll();
+            consumer.accept(head.next());
+            if (head.hasNext()) {
+                heads.add(head);
+            }
+        }
+    }
+
+    private static final class Cursor {
+        private final Iterator<User> users;
+        private User head;
+
+        Cursor(Iterator<User> users) {
+            this.users = users;
+            this.head = users.next();
+        }
+
+        Long peekId() {
+            return head.getId();
+        }
+
+        User next() {
+            User current = head;
+            head = users.hasNext() ? users.next() : null;
+            return current;
+        }
+
+        boolean hasNext() {
+            return head != null;
+        }
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        executor.shutdownNow();
+        for (DataSource dataSource : dataSources) {
+            if (dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.app.repository;
+
+import com.example.app.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Plain JDBC access to the {@code my_user} table for bulk export and import.
+ * Bypasses the JPA persistence context so rows are neither materialized as managed
+ * entities nor dirty-checked.
+ */
+@Repository
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserBulkRepository {
+
+    private static final String SELECT_ALL_SQL = "SELECT id, user_name, password FROM my_user WHERE deleted_at IS NULL ORDER BY id";
+    private static final String INSERT_SQL = "INSERT INTO my_user (id, user_name, password) VALUES (?, ?, ?)";
+    private static final String MAX_ID_SQL = "SELECT COALESCE(MAX(id), 0) FROM my_user";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams every row to the consumer using a forward-only cursor, one reused
+     * {@link User} instance per row. The consumer must not keep a reference to it.
+     */
+    public void streamAll(int fetchSize, Consumer<User> consumer) {
+        User row = new User();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_ALL_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, resultSet -> {
+            row.setId(resultSet.getLong(1));
+            row.setUserName(resultSet.getString(2));
+            row.setPassword(resultSet.getString(3));
+            consumer.accept(row);
+        });
+    }
+
+    /**
+     * Inserts the users as one JDBC batch, keeping their IDs.
+     */
+    public void batchInsert(List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, users, users.size(), (statement, user) -> {
+            statement.setLong(1, user.getId());
+            statement.setString(2, user.getUserName());
+            statement.setString(3, user.getPassword());
+        });
+    }
+
+    /**
+     * Moves the identity column past the highest stored ID so that users added through
+     * the API after an import don't collide with imported IDs.
+     */
+    public void resetIdentity() {
+        Long maxId = jdbcTemplate.queryForObject(MAX_ID_SQL, Long.class);
+        jdbcTemplate.execute("ALTER TABLE my_user ALTER COLUMN id RESTART WITH " + (maxId + 1));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.app.repository;
+
+import org.springframework.util.Assert;
+
+/**
+ * Generates globally unique, roughly time-ordered user IDs without coordination
+ * between application nodes or shards:
+ * <pre>
+ * 41 bits millis since 2024-01-01 | 5 bits node id | 7 bits per-millisecond sequence
+ * </pre>
+ * IDs fit in 53 bits, so they stay exact in JSON clients that parse numbers as doubles
+ * (JavaScript's {@code Number.MAX_SAFE_INTEGER} is 2^53 - 1) and the API can keep returning
+ * them as numbers. The price is at most 32 nodes and 128 IDs per millisecond per node;
+ * the timestamp lasts until 2093.
+ * If the wall clock moves backwards, or a millisecond's sequence is used up, IDs keep
+ * being issued from the last timestamp plus one, so they never repeat on a node.
+ */
+public class UserIdGenerator {
+
+    private static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    private static final int NODE_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public UserIdGenerator(long nodeId) {
+        Assert.isTrue(nodeId >= 0 && nodeId <= MAX_NODE_ID, "nodeId must be between 0 and " + MAX_NODE_ID);
+        this.nodeId = nodeId;
+    }
+
+    public synchronized long nextId() {
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                now = lastMillis + 1;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
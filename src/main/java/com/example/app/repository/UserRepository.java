@@ -2,7 +2,50 @@ package com.example.app.repository;
 
 
 import com.example.app.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    /**
+     * Loads a live user and locks its row until the surrounding transaction ends, so it
+     * can't be soft-deleted or purged between the read and the write of an update.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :userId")
+    Optional<User> findByIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Marks a live user as deleted.
+     *
+     * @return 1 if the user was deleted, 0 if it did not exist or was already deleted
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE my_user SET deleted_at = :deletedAt WHERE id = :userId AND deleted_at IS NULL",
+            nativeQuery = true)
+    int softDeleteById(@Param("userId") Long userId, @Param("deletedAt") Instant deletedAt);
+
+    /**
+     * Hard-deletes up to {@code limit} users soft-deleted before {@code cutoff}, oldest first.
+     *
+     * @return the number of rows removed
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM my_user WHERE id IN (SELECT id FROM my_user WHERE deleted_at < :cutoff "
+            + "ORDER BY deleted_at LIMIT :limit)", nativeQuery = true)
+    int purgeDeletedBefore(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    @Transactional(readOnly = true)
+    @Query(value = "SELECT COUNT(*) FROM my_user WHERE deleted_at IS NOT NULL", nativeQuery = true)
+    long countDeleted();
 }
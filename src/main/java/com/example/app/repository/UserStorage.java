@@ -0,0 +1,79 @@
+package com.example.app.repository;
+
+import com.example.app.entity.User;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * The user operations the service layer relies on. {@link JpaUserStorage} keeps users in the
+ * JPA-managed {@code my_user} table; with {@code app.sharding.enabled=true}
+ * {@link ShardedUserStorage} partitions them across several databases instead.
+ *
+ * <p>Every method is one unit of work that commits before it returns. Reads only ever see
+ * live users; soft-deleted ones are visible to {@link #purgeDeletedBefore} and
+ * {@link #countDeleted} alone.
+ */
+public interface UserStorage {
+
+    Optional<User> findById(Long userId);
+
+    List<User> findAll();
+
+    /**
+     * Returns the live users among {@code userIds}, in no particular order; unknown IDs are skipped.
+     */
+    List<User> findAllById(Iterable<Long> userIds);
+
+    /**
+     * Stores a new user, assigning its ID if it has none.
+     */
+    User insert(User user);
+
+    /**
+     * Applies {@code changes} to the live user with the given ID and stores the result.
+     *
+     * @return the updated user, or empty if no live user has that ID
+     */
+    Optional<User> update(Long userId, Consumer<User> changes);
+
+    /**
+     * Marks a live user as deleted.
+     *
+     * @return false if the user did not exist or was already deleted
+     */
+    boolean softDeleteById(Long userId, Instant deletedAt);
+
+    /**
+     * Hard-deletes up to {@code limit} users soft-deleted before {@code cutoff}, oldest first.
+     *
+     * @return the number of rows removed
+     */
+    int purgeDeletedBefore(Instant cutoff, int limit);
+
+    /**
+     * Counts live users as of the latest commit; never served from a read replica.
+     */
+    long count();
+
+    long countDeleted();
+
+    /**
+     * Streams every live user to the consumer in ID order, reading {@code fetchSize} rows at a
+     * time. The consumer may be handed one reused {@link User} instance and must not keep it.
+     */
+    void streamAll(int fetchSize, Consumer<User> consumer);
+
+    /**
+     * Stores users that already carry their IDs, as one batch. The batch is not atomic across
+     * shards: if it fails, the part bound for other shards may already be committed.
+     */
+    void insertAll(List<User> users);
+
+    /**
+     * Makes sure {@link #insert} never assigns an ID that {@link #insertAll} has already stored.
+     */
+    void reserveInsertedIds();
+}
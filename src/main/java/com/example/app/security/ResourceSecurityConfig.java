@@ -38,9 +38,13 @@ public class ResourceSecurityConfig {
 
         http.authorizeHttpRequests(configurer ->
                 configurer
+                        .requestMatchers(HttpMethod.GET, "/actuator/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/api/v1/users/export").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/api/v1/users/all").hasRole("USER")
                         .requestMatchers(HttpMethod.GET, "/api/v1/users/**").hasRole("USER")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/users/batch-get").hasRole("USER")
                         .requestMatchers(HttpMethod.POST, "/api/v1/users/add").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/api/v1/users/import").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/v1/users/update/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/v1/users/delete/**").hasRole("ADMIN")
         );
@@ -0,0 +1,222 @@
+package com.example.app.service;
+
+import com.example.app.entity.User;
+import org.springframework.util.Assert;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact, length-prefixed binary format used for bulk export/import of users.
+ *
+ * <pre>
+ * file   := MAGIC record* end
+ * record := RECORD:int8 id:int64 userName:string password:string
+ * end    := END:int8 recordCount:int64
+ * string := length:int32 (-1 for null) utf8-bytes
+ * </pre>
+ * All integers are big-endian. Reads and writes go through a single reused buffer
+ * straight to/from an NIO channel. String lengths are capped at {@link #MAX_STRING_BYTES},
+ * so a corrupt or hostile length can't make the reader allocate unbounded memory.
+ * An export that dies part-way ends on a record boundary without the end marker, so the
+ * reader rejects a file whose marker is missing or whose count doesn't match.
+ */
+final class UserBinaryCodec {
+
+    static final int MAGIC = 0x554D5532; // "UMU2"
+    static final byte RECORD = 1;
+    static final byte END = 0;
+
+    // user_name and password are VARCHAR(255): at most 4 UTF-8 bytes per character
+    static final int MAX_STRING_BYTES = 255 * 4;
+    static final int MAX_RECORD_BYTES = Byte.BYTES + Long.BYTES + 2 * (Integer.BYTES + MAX_STRING_BYTES);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int NULL_LENGTH = -1;
+
+    private UserBinaryCodec() {
+    }
+
+    static final class Writer {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private long bytesWritten;
+        private long recordsWritten;
+
+        Writer(WritableByteChannel channel) {
+            this(channel, BUFFER_SIZE);
+        }
+
+        Writer(WritableByteChannel channel, int bufferSize) {
+            Assert.isTrue(bufferSize >= MAX_RECORD_BYTES, "bufferSize must hold at least one record");
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            buffer.putInt(MAGIC);
+        }
+
+        void write(User user) throws IOException {
+            byte[] userName = encode(user.getUserName());
+            byte[] password = encode(user.getPassword());
+            int recordSize = Byte.BYTES + Long.BYTES + stringSize(userName) + stringSize(password);
+            if (recordSize > buffer.remaining()) {
+                flush();
+            }
+            buffer.put(RECORD);
+            buffer.putLong(user.getId());
+            putString(userName);
+            putString(password);
+            recordsWritten++;
+        }
+
+        /**
+         * Writes the end marker with the record count and flushes. Only a finished file
+         * can be imported. Does not close the channel.
+         */
+        void finish() throws IOException {
+            if (Byte.BYTES + Long.BYTES > buffer.remaining()) {
+                flush();
+            }
+            buffer.put(END);
+            buffer.putLong(recordsWritten);
+            flush();
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                bytesWritten += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        private static byte[] encode(String value) throws IOException {
+            if (value == null) {
+                return null;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > MAX_STRING_BYTES) {
+                throw new IOException("String of " + bytes.length + " bytes exceeds the " + MAX_STRING_BYTES + " byte limit");
+            }
+            return bytes;
+        }
+
+        private static int stringSize(byte[] value) {
+            return Integer.BYTES + (value == null ? 0 : value.length);
+        }
+
+        private void putString(byte[] value) {
+            if (value == null) {
+                buffer.putInt(NULL_LENGTH);
+            } else {
+                buffer.putInt(value.length);
+                buffer.put(value);
+            }
+        }
+    }
+
+    static final class Reader {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer;
+        private long bytesRead;
+        private long recordsRead;
+        private boolean endOfStream;
+
+        Reader(ReadableByteChannel channel) throws IOException {
+            this(channel, BUFFER_SIZE);
+        }
+
+        Reader(ReadableByteChannel channel, int bufferSize) throws IOException {
+            Assert.isTrue(bufferSize >= MAX_RECORD_BYTES, "bufferSize must hold at least one record");
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            buffer.flip();
+            if (!ensure(Integer.BYTES) || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a user export file: bad or missing header");
+            }
+        }
+
+        /**
+         * Reads the next record into {@code target}.
+         *
+         * @return false once the end marker has been read and its count checked
+         */
+        boolean next(User target) throws IOException {
+            if (!ensure(Byte.BYTES)) {
+                throw new EOFException("Missing end marker after " + recordsRead + " records; the export is incomplete");
+            }
+            byte tag = buffer.get();
+            if (tag == END) {
+                require(Long.BYTES);
+                long expected = buffer.getLong();
+                if (expected != recordsRead) {
+                    throw new IOException("End marker expects " + expected + " records but " + recordsRead + " were read");
+                }
+                return false;
+            }
+            if (tag != RECORD) {
+                throw new IOException("Corrupt user record: unknown tag " + tag);
+            }
+            require(Long.BYTES);
+            recordsRead++;
+            target.setId(buffer.getLong());
+            target.setUserName(readString());
+            target.setPassword(readString());
+            return true;
+        }
+
+        long getBytesRead() {
+            return bytesRead;
+        }
+
+        private String readString() throws IOException {
+            require(Integer.BYTES);
+            int length = buffer.getInt();
+            if (length == NULL_LENGTH) {
+                return null;
+            }
+            if (length < 0 || length > MAX_STRING_BYTES) {
+                throw new IOException("Corrupt user record: string length " + length
+                        + " outside 0.." + MAX_STRING_BYTES);
+            }
+            require(length);
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private void require(int bytes) throws IOException {
+            if (!ensure(bytes)) {
+                throw new EOFException("Truncated user record");
+            }
+        }
+
+        /**
+         * Tops the buffer up from the channel until at least {@code bytes} are readable.
+         * Callers never ask for more than one bounded field, which always fits the buffer.
+         */
+        private boolean ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return true;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes && !endOfStream) {
+                int read = channel.read(buffer);
+                if (read < 0) {
+                    endOfStream = true;
+                } else {
+                    bytesRead += read;
+                }
+            }
+            buffer.flip();
+            return buffer.remaining() >= bytes;
+        }
+    }
+}
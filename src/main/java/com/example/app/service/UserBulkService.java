@@ -0,0 +1,16 @@
+package com.example.app.service;
+
+
+import com.example.app.dto.UserTransferReport;
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+public interface UserBulkService {
+
+    UserTransferReport exportUsers(WritableByteChannel channel) throws IOException;
+
+    UserTransferReport importUsers(ReadableByteChannel channel) throws IOException;
+
+}
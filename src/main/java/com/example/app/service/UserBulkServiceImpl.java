@@ -0,0 +1,131 @@
+package com.example.app.service;
+
+import com.example.app.dto.UserTransferReport;
+import com.example.app.entity.User;
+import com.example.app.exception.UserImportException;
+import com.example.app.repository.UserStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserBulkServiceImpl implements UserBulkService {
+
+    private static final int EXPORT_FETCH_SIZE = 1_000;
+    private static final int IMPORT_BATCH_SIZE = 1_000;
+    private static final long PROGRESS_LOG_INTERVAL = 100_000;
+
+    private final UserStorage userStorage;
+    private final UserStatsService userStatsService;
+
+    @Override
+    public UserTransferReport exportUsers(WritableByteChannel channel) throws IOException {
+        log.info("Exporting all users.");
+        long startNanos = System.nanoTime();
+        UserBinaryCodec.Writer writer = new UserBinaryCodec.Writer(channel);
+        long[] rows = {0};
+        try {
+            userStorage.streamAll(EXPORT_FETCH_SIZE, user -> {
+                try {
+                    writer.write(user);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                logProgress("Exported", ++rows[0], writer.getBytesWritten(), startNanos);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.finish();
+
+        UserTransferReport report = buildReport(rows[0], writer.getBytesWritten(), startNanos);
+        log.info("Export finished: {}", report);
+        return report;
+    }
+
+    /**
+     * Imports in committed batches of {@value #IMPORT_BATCH_SIZE}. If the import stops
+     * part-way, earlier batches stay committed, IDs assigned afterwards are still kept clear
+     * of every stored one, and a {@link UserImportException} reports where it stopped.
+     */
+    @Override
+    public UserTransferReport importUsers(ReadableByteChannel channel) throws IOException {
+        log.info("Importing users.");
+        long startNanos = System.nanoTime();
+        List<User> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+        long rows = 0;
+        long committedRows = 0;
+        long bytesRead = 0;
+
+        try {
+            UserBinaryCodec.Reader reader = new UserBinaryCodec.Reader(channel);
+            User user = new User();
+            while (reader.next(user)) {
+                batch.add(user);
+                user = new User();
+                rows++;
+                if (batch.size() == IMPORT_BATCH_SIZE) {
+                    userStorage.insertAll(batch);
+                    committedRows += batch.size();
+                    batch.clear();
+                }
+                logProgress("Imported", rows, reader.getBytesRead(), startNanos);
+            }
+            if (!batch.isEmpty()) {
+                userStorage.insertAll(batch);
+                committedRows += batch.size();
+            }
+            bytesRead = reader.getBytesRead();
+        } catch (IOException | RuntimeException e) {
+            // an IOException means record rows+1 couldn't be read; otherwise the pending batch failed to store
+            String message = e instanceof IOException
+                    ? String.format("Import stopped reading record %d: %s", rows + 1, e.getMessage())
+                    : String.format("Import stopped storing records %d-%d: %s", committedRows + 1, rows, e.getMessage());
+            log.error("{}; {} rows were committed", message, committedRows);
+            throw new UserImportException(message + "; " + committedRows + " rows were committed", committedRows, e);
+        } finally {
+            reserveIdsAfterImport();
+        }
+
+        UserTransferReport report = buildReport(rows, bytesRead, startNanos);
+        log.info("Import finished: {}", report);
+        return report;
+    }
+
+    // runs on success and failure alike, and must not hide the original import error
+    private void reserveIdsAfterImport() {
+        try {
+            userStorage.reserveInsertedIds();
+            userStatsService.reconcile();
+        } catch (RuntimeException e) {
+            log.error("Could not reserve the imported user IDs after import", e);
+        }
+    }
+
+    private void logProgress(String action, long rows, long bytes, long startNanos) {
+        if (rows % PROGRESS_LOG_INTERVAL == 0) {
+            log.info("{} {} users so far: {}", action, rows, buildReport(rows, bytes, startNanos));
+        }
+    }
+
+    private UserTransferReport buildReport(long rows, long bytes, long startNanos) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        return UserTransferReport.builder()
+                .rows(rows)
+                .bytes(bytes)
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(rows * 1000 / Math.max(elapsedMillis, 1))
+                .build();
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.app.service;
+
+import com.example.app.entity.User;
+import com.example.app.repository.UserStorage;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coalesces concurrent single-user lookups into one {@code findAllById} query.
+ * Lookups are collected for up to {@code window-micros} or until {@code max-batch-size}
+ * distinct IDs are pending, whichever comes first. Callers asking for an ID that is
+ * already pending or in flight share the same result.
+ * Disabled unless {@code app.user-lookup.batching.enabled=true}.
+ *
+ * <p>Blocking callers give up after {@code timeout-ms}. On shutdown, lookups that were
+ * never dispatched fail at once and in-flight ones get up to {@code timeout-ms} to finish
+ * before they fail too, so no caller is left waiting on a future nobody will complete.
+ */
+@Slf4j
+@Component
+public class UserLookupBatcher implements DisposableBean {
+
+    private final UserStorage userStorage;
+    private final boolean enabled;
+    private final long windowMicros;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final DistributionSummary batchSizes;
+    private final ScheduledExecutorService executor;
+
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<Optional<User>>> pending = new LinkedHashMap<>();
+    private final Map<Long, CompletableFuture<Optional<User>>> inFlight = new HashMap<>();
+    private boolean closed;
+
+    @Autowired
+    public UserLookupBatcher(UserStorage userStorage,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.user-lookup.batching.enabled:false}") boolean enabled,
+                             @Value("${app.user-lookup.batching.window-micros:500}") long windowMicros,
+                             @Value("${app.user-lookup.batching.max-batch-size:64}") int maxBatchSize,
+                             @Value("${app.user-lookup.batching.threads:2}") int threads,
+                             @Value("${app.user-lookup.batching.timeout-ms:1000}") long timeoutMillis) {
+        this.userStorage = userStorage;
+        this.enabled = enabled;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.batchSizes = DistributionSummary.builder("user.lookup.batch.size")
+                .description("Distinct user IDs resolved per batched lookup query")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.executor = enabled ? Executors.newScheduledThreadPool(threads) : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Blocking variant of {@link #load(Long)} for request threads; waits at most {@code timeout-ms}.
+     */
+    public Optional<User> findById(Long userId) {
+        CompletableFuture<Optional<User>> result = load(userId);
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("Batched lookup of user " + userId
+                    + " did not complete within " + timeoutMillis + " ms", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while looking up user " + userId, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public CompletableFuture<Optional<User>> load(Long userId) {
+        Assert.notNull(userId, "userId can't be null");
+        Assert.state(enabled, "user lookup batching is disabled");
+
+        Map<Long, CompletableFuture<Optional<User>>> fullBatch = null;
+        CompletableFuture<Optional<User>> result;
+        synchronized (lock) {
+            if (closed) {
+                return CompletableFuture.failedFuture(shutDown());
+            }
+            result = inFlight.get(userId);
+            if (result == null) {
+                result = pending.get(userId);
+            }
+            if (result != null) {
+                return result;
+            }
+
+            result = new CompletableFuture<>();
+            pending.put(userId, result);
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = takePending();
+            } else if (pending.size() == 1) {
+                Map<Long, CompletableFuture<Optional<User>>> batch = pending;
+                executor.schedule(() -> flush(batch), windowMicros, TimeUnit.MICROSECONDS);
+            }
+        }
+        if (fullBatch != null) {
+            Map<Long, CompletableFuture<Optional<User>>> batch = fullBatch;
+            try {
+                executor.execute(() -> execute(batch));
+            } catch (RejectedExecutionException e) {
+                // shut down concurrently; destroy() fails everything still in flight
+            }
+        }
+        return result;
+    }
+
+    // timer path: only dispatches if the batch wasn't already sent for being full
+    private void flush(Map<Long, CompletableFuture<Optional<User>>> batch) {
+        synchronized (lock) {
+            if (pending != batch) {
+                return;
+            }
+            takePending();
+        }
+        execute(batch);
+    }
+
+    private Map<Long, CompletableFuture<Optional<User>>> takePending() {
+        Map<Long, CompletableFuture<Optional<User>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        inFlight.putAll(batch);
+        return batch;
+    }
+
+    private void execute(Map<Long, CompletableFuture<Optional<User>>> batch) {
+        batchSizes.record(batch.size());
+        Map<Long, User> found = new HashMap<>(batch.size() * 2);
+        RuntimeException failure = null;
+        try {
+            userStorage.findAllById(batch.keySet()).forEach(user -> found.put(user.getId(), user));
+        } catch (RuntimeException e) {
+            log.error("Batched lookup of {} users failed", batch.size(), e);
+            failure = e;
+        }
+
+        synchronized (lock) {
+            batch.keySet().forEach(inFlight::remove);
+        }
+        for (Map.Entry<Long, CompletableFuture<Optional<User>>> entry : batch.entrySet()) {
+            if (failure != null) {
+                entry.getValue().completeExceptionally(failure);
+            } else {
+                entry.getValue().complete(Optional.ofNullable(found.get(entry.getKey())));
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        List<CompletableFuture<Optional<User>>> undispatched;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            undispatched = new ArrayList<>(pending.values());
+            pending = new LinkedHashMap<>();
+        }
+        undispatched.forEach(result -> result.completeExceptionally(shutDown()));
+
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<CompletableFuture<Optional<User>>> abandoned;
+        synchronized (lock) {
+            abandoned = new ArrayList<>(inFlight.values());
+            inFlight.clear();
+        }
+        abandoned.forEach(result -> result.completeExceptionally(shutDown()));
+    }
+
+    private static IllegalStateException shutDown() {
+        return new IllegalStateException("User lookup batcher is shut down");
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.app.service;
 
 
+import com.example.app.dto.UserBatchResponse;
 import com.example.app.dto.UserDto;
 import com.example.app.dto.UserResponse;
 
@@ -12,6 +13,8 @@ public interface UserService {
 
     UserResponse getUserById(Long userId);
 
+    UserBatchResponse getUsersByIds(List<Long> userIds);
+
     UserResponse addUser(UserDto user);
 
     UserResponse updateUser(Long userId, UserDto user);
@@ -1,12 +1,14 @@
 package com.example.app.service;
 
+import com.example.app.dto.UserBatchResponse;
 import com.example.app.dto.UserDto;
 import com.example.app.dto.UserResponse;
 import com.example.app.entity.User;
 import com.example.app.exception.AccessDeniedException;
+import com.example.app.exception.InvalidRequestException;
 import com.example.app.exception.UserNotFoundException;
 import com.example.app.mapper.UserMapper;
-import com.example.app.repository.UserRepository;
+import com.example.app.repository.UserStorage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,25 +17,43 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Transactions belong to the {@link UserStorage} implementation: every storage call is its
+ * own unit of work, and this class opens none, so a sharded deployment never touches
+ * {@code spring.datasource}. An update's lookup and save happen inside one storage call.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor(onConstructor = @__(@Autowired))
 public class UserServiceImpl implements UserService {
 
-    private final UserRepository userRepository;
+    // upper bound on IDs per batch-get request, so one caller can't hold a transaction for long
+    public static final int MAX_BATCH_LOOKUP_SIZE = 1000;
+
+    // keeps the generated IN (...) list well below driver/database bind-parameter limits
+    private static final int BATCH_LOOKUP_CHUNK_SIZE = 500;
+
+    private final UserStorage userStorage;
     private final UserMapper userMapper;
+    private final UserStatsService userStatsService;
+    private final UserLookupBatcher userLookupBatcher;
 
     @Override
     public List<UserResponse> getAllUsers() {
         checkAuthorizationForRole("USER", "ADMIN");
         log.info("Fetching all users.");
-        List<User> users = userRepository.findAll();
+        List<User> users = userStorage.findAll();
         return users.stream()
                 .filter(Objects::nonNull)
                 .map(user -> UserResponse.builder()
@@ -43,12 +63,15 @@ public class UserServiceImpl implements UserService {
                 .collect(Collectors.toList());
     }
 
+    // a caller waiting on a batched lookup holds no connection meanwhile
     @Override
     public UserResponse getUserById(Long userId) {
         checkAuthorizationForRole("USER", "ADMIN");
         log.info("Fetching user by ID: {}", userId);
-        User existingUser = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        Optional<User> user = userLookupBatcher.isEnabled()
+                ? userLookupBatcher.findById(userId)
+                : userStorage.findById(userId);
+        User existingUser = user.orElseThrow(() -> new UserNotFoundException(userId));
 
         return UserResponse.builder()
                 .id(userId)
@@ -56,6 +79,47 @@ public class UserServiceImpl implements UserService {
                 .build();
     }
 
+    @Override
+    public UserBatchResponse getUsersByIds(List<Long> userIds) {
+        checkAuthorizationForRole("USER", "ADMIN");
+        if (userIds == null) {
+            throw new InvalidRequestException("ids is required");
+        }
+        if (userIds.size() > MAX_BATCH_LOOKUP_SIZE) {
+            throw new InvalidRequestException("At most " + MAX_BATCH_LOOKUP_SIZE + " ids can be fetched per request");
+        }
+
+        // de-duplicate while keeping the caller's ordering
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(userIds));
+        distinctIds.removeIf(Objects::isNull);
+        log.info("Fetching {} users by ID in one batch.", distinctIds.size());
+
+        Map<Long, User> usersById = new HashMap<>(distinctIds.size() * 2);
+        for (int from = 0; from < distinctIds.size(); from += BATCH_LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + BATCH_LOOKUP_CHUNK_SIZE, distinctIds.size()));
+            userStorage.findAllById(chunk).forEach(user -> usersById.put(user.getId(), user));
+        }
+
+        List<UserResponse> users = new ArrayList<>(usersById.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long userId : distinctIds) {
+            User user = usersById.get(userId);
+            if (Objects.isNull(user)) {
+                missingIds.add(userId);
+            } else {
+                users.add(UserResponse.builder()
+                        .id(user.getId())
+                        .userName(user.getUserName())
+                        .build());
+            }
+        }
+
+        return UserBatchResponse.builder()
+                .users(users)
+                .missingIds(missingIds)
+                .build();
+    }
+
     @Override
     public UserResponse addUser(UserDto userDto) {
         checkAuthorizationForRole("ADMIN");
@@ -63,7 +127,8 @@ public class UserServiceImpl implements UserService {
         validateUserDto(userDto);
 
         User user = userMapper.userDtoToUser(userDto);
-        User savedUser = userRepository.save(user);
+        User savedUser = userStorage.insert(user);
+        userStatsService.recordUserAdded();
 
         return UserResponse.builder()
                 .id(savedUser.getId())
@@ -78,21 +143,20 @@ public class UserServiceImpl implements UserService {
         Assert.notNull(userDto.getPassword(), "password can't be null");
     }
 
+    @Override
     public UserResponse updateUser(Long userId, UserDto userDto) {
         checkAuthorizationForRole("ADMIN");
         Assert.notNull(userDto, "userDto can't be null");
 
         log.info("Updating user with ID: {}", userId);
 
-        Optional<User> optionalUser = userRepository.findById(userId);
-
-        if (optionalUser.isPresent()) {
-            User existingUser = optionalUser.get();
-
+        Optional<User> optionalUser = userStorage.update(userId, existingUser -> {
             updateIfPresent(userDto.getUserName(), existingUser::setUserName);
             updateIfPresent(userDto.getPassword(), existingUser::setPassword);
+        });
 
-            User savedUser = userRepository.save(existingUser);
+        if (optionalUser.isPresent()) {
+            User savedUser = optionalUser.get();
             log.info("User with ID {} updated successfully", userId);
 
             return UserResponse.builder()
@@ -101,7 +165,7 @@ public class UserServiceImpl implements UserService {
                     .build();
         } else {
             log.error("User not found with ID: {}", userId);
-            throw new UserNotFoundException("User not found with ID: " + userId);
+            throw new UserNotFoundException(userId);
         }
     }
 
@@ -114,16 +178,16 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserResponse deleteUserById(Long userId) {
         checkAuthorizationForRole("ADMIN");
-        Optional<User> userOptional = userRepository.findById(userId);
         log.info("Deleting user with ID: {}", userId);
 
-        if (userOptional.isPresent()) {
-            userRepository.deleteById(userId);
+        // soft delete: one indexed update; UserTombstonePurger removes the row later
+        if (userStorage.softDeleteById(userId, Instant.now())) {
+            userStatsService.recordUserDeleted();
             log.info("User with ID {} deleted successfully", userId);
             return UserResponse.builder().id(userId).build();
         } else {
             log.error("User not found with ID: {}", userId);
-            throw new UserNotFoundException("User not found with id: " + userId);
+            throw new UserNotFoundException(userId);
         }
     }
 
@@ -136,7 +200,7 @@ public class UserServiceImpl implements UserService {
             }
         }
         log.warn("Access denied. User does not have the required role.");
-        throw new AccessDeniedException("Access denied. User does not have the required role.");
+        throw AccessDeniedException.ROLE_REQUIRED;
     }
 }
 
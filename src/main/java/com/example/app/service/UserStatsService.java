@@ -0,0 +1,16 @@
+package com.example.app.service;
+
+
+import com.example.app.dto.UserStatsResponse;
+
+public interface UserStatsService {
+
+    UserStatsResponse getStats();
+
+    void recordUserAdded();
+
+    void recordUserDeleted();
+
+    void reconcile();
+
+}
@@ -0,0 +1,89 @@
+package com.example.app.service;
+
+import com.example.app.dto.UserStatsResponse;
+import com.example.app.repository.UserStorage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the user count in memory so that stats polling never hits the table.
+ * The storage call commits an add or delete first, then the service records it here, so the
+ * counter never includes a change that rolled back. A periodic reconciliation against
+ * {@link UserStorage#count()} corrects any drift (e.g. rows changed outside this service).
+ * A change that commits just before the count but is recorded after the count starts
+ * is counted twice; the next reconciliation corrects it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor(onConstructor = @__(@Autowired))
+public class UserStatsServiceImpl implements UserStatsService {
+
+    private final UserStorage userStorage;
+
+    private final AtomicLong totalUsers = new AtomicLong();
+    private final AtomicLong usersAdded = new AtomicLong();
+    private final AtomicLong usersDeleted = new AtomicLong();
+    private volatile Instant lastReconciledAt;
+
+    // guards totalUsers updates and changesSinceSnapshot; reads of totalUsers stay lock-free
+    private final Object lock = new Object();
+    private long changesSinceSnapshot;
+
+    @Override
+    public UserStatsResponse getStats() {
+        return UserStatsResponse.builder()
+                .totalUsers(totalUsers.get())
+                .usersAddedSinceStartup(usersAdded.get())
+                .usersDeletedSinceStartup(usersDeleted.get())
+                .lastReconciledAt(lastReconciledAt)
+                .build();
+    }
+
+    @Override
+    public void recordUserAdded() {
+        applyChange(1);
+        usersAdded.incrementAndGet();
+    }
+
+    @Override
+    public void recordUserDeleted() {
+        applyChange(-1);
+        usersDeleted.incrementAndGet();
+    }
+
+    /**
+     * Resets the counter to {@code count()} plus whatever was committed while the count ran,
+     * so changes landing during reconciliation are neither lost nor counted twice.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${app.stats.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        synchronized (lock) {
+            changesSinceSnapshot = 0;
+        }
+        long actual = userStorage.count();
+        long previous;
+        long reconciled;
+        synchronized (lock) {
+            reconciled = actual + changesSinceSnapshot;
+            previous = totalUsers.getAndSet(reconciled);
+        }
+        lastReconciledAt = Instant.now();
+        if (previous != reconciled) {
+            log.info("Reconciled user count from {} to {}", previous, reconciled);
+        }
+    }
+
+    private void applyChange(long delta) {
+        synchronized (lock) {
+            totalUsers.addAndGet(delta);
+            changesSinceSnapshot += delta;
+        }
+    }
+}
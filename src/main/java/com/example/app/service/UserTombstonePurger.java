@@ -0,0 +1,76 @@
+package com.example.app.service;
+
+import com.example.app.repository.UserStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hard-deletes soft-deleted users once they are older than {@code app.soft-delete.retention}.
+ * Removes at most one batch of {@code batch-size} rows per {@code interval-ms}, which caps
+ * the purge rate and keeps each delete transaction short. The backlog gauge needs a count of
+ * every tombstone (a fan-out with sharding), so it is refreshed only after a batch that
+ * removed rows, or once per {@code backlog-refresh} while the purger is idle.
+ */
+@Slf4j
+@Component
+public class UserTombstonePurger {
+
+    private final UserStorage userStorage;
+    private final int batchSize;
+    private final Duration retention;
+    private final long backlogRefreshNanos;
+    private final DistributionSummary batchSizes;
+    private final Counter purgedUsers;
+    private final AtomicLong backlog = new AtomicLong();
+    private long lastBacklogRefreshNanos;
+
+    @Autowired
+    public UserTombstonePurger(UserStorage userStorage,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.soft-delete.purge.batch-size:500}") int batchSize,
+                               @Value("${app.soft-delete.retention:1h}") Duration retention,
+                               @Value("${app.soft-delete.purge.backlog-refresh:1m}") Duration backlogRefresh) {
+        this.userStorage = userStorage;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.backlogRefreshNanos = backlogRefresh.toNanos();
+        // so that the first run fills the gauge
+        this.lastBacklogRefreshNanos = System.nanoTime() - backlogRefreshNanos;
+        this.batchSizes = DistributionSummary.builder("user.purge.batch.size")
+                .description("Deleted users removed per purge batch")
+                .register(meterRegistry);
+        this.purgedUsers = Counter.builder("user.purge.purged")
+                .description("Deleted users removed by the purger; its rate is the purge rate")
+                .register(meterRegistry);
+        Gauge.builder("user.purge.backlog", backlog, AtomicLong::get)
+                .description("Soft-deleted users not yet purged")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.soft-delete.purge.interval-ms:1000}")
+    public void purge() {
+        int purged = userStorage.purgeDeletedBefore(Instant.now().minus(retention), batchSize);
+        long now = System.nanoTime();
+        if (purged > 0 || now - lastBacklogRefreshNanos >= backlogRefreshNanos) {
+            backlog.set(userStorage.countDeleted());
+            lastBacklogRefreshNanos = now;
+        }
+        if (purged > 0) {
+            // idle runs would drag the batch size distribution towards zero
+            batchSizes.record(purged);
+            purgedUsers.increment(purged);
+            log.info("Purged {} deleted users, {} still pending", purged, backlog.get());
+        }
+    }
+}
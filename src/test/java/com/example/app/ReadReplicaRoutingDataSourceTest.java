@@ -0,0 +1,60 @@
+package com.example.app;
+
+import com.example.app.config.ReadReplicaRoutingDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+
+public class ReadReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    private DataSource dataSource;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // wired the same way as ReadReplicaDataSourceConfig, against two local H2 databases
+        dataSource = new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(
+                new DriverManagerDataSource(PRIMARY_URL), new DriverManagerDataSource(REPLICA_URL)));
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReplica() {
+        transactionTemplate.setReadOnly(true);
+
+        assertEquals(REPLICA_URL, transactionTemplate.execute(status -> currentUrl()));
+    }
+
+    @Test
+    void testReadWriteTransactionUsesPrimary() {
+        assertEquals(PRIMARY_URL, transactionTemplate.execute(status -> currentUrl()));
+    }
+
+    @Test
+    void testNoTransactionUsesPrimary() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            assertEquals(PRIMARY_URL, connection.getMetaData().getURL());
+        }
+    }
+
+    private String currentUrl() {
+        try {
+            return DataSourceUtils.getConnection(dataSource).getMetaData().getURL();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
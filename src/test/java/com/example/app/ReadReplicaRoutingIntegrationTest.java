@@ -0,0 +1,126 @@
+package com.example.app;
+
+import com.example.app.dto.UserBatchResponse;
+import com.example.app.dto.UserDto;
+import com.example.app.dto.UserResponse;
+import com.example.app.service.UserService;
+import com.example.app.service.UserStatsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Boots the application with a replica configured, both sides being H2 databases that
+ * hold the same user ID under different names, so the name returned shows which
+ * database served the call. Hibernate creates the schema on the primary only; the
+ * replica gets it from its INIT script.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "app.datasource.replica.url=jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE TABLE IF NOT EXISTS my_user (id BIGINT PRIMARY KEY, user_name VARCHAR(255), "
+                + "password VARCHAR(255), deleted_at TIMESTAMP(6) WITH TIME ZONE)"
+})
+public class ReadReplicaRoutingIntegrationTest {
+    private static final long USER_ID = 4242L;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        primary.update("INSERT INTO my_user (id, user_name, password) VALUES (?, 'on-primary', 'pw')", USER_ID);
+        replica.update("INSERT INTO my_user (id, user_name, password) VALUES (?, 'on-replica', 'pw')", USER_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.update("DELETE FROM my_user WHERE id IN (?, ?)", USER_ID, USER_ID + 1);
+        replica.update("DELETE FROM my_user WHERE id = ?", USER_ID);
+    }
+
+    @Test
+    void testTransactionsGoThroughJpaTransactionManager() {
+        assertTrue(transactionManager instanceof JpaTransactionManager);
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testGetAllUsersReadsFromReplica() {
+        List<UserResponse> users = userService.getAllUsers();
+
+        assertEquals(1, users.size());
+        assertEquals("on-replica", users.get(0).getUserName());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testGetUsersByIdsReadsFromReplica() {
+        UserBatchResponse response = userService.getUsersByIds(List.of(USER_ID));
+
+        assertEquals(1, response.getUsers().size());
+        assertEquals("on-replica", response.getUsers().get(0).getUserName());
+        assertTrue(response.getMissingIds().isEmpty());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testUpdateUserWritesToPrimary() {
+        UserResponse updated = userService.updateUser(USER_ID, UserDto.builder()
+                .userName("updated")
+                .password("pw2")
+                .build());
+
+        assertEquals("updated", updated.getUserName());
+        assertEquals("updated", userNameIn(primary));
+        assertEquals("on-replica", userNameIn(replica));
+    }
+
+    @Test
+    void testReconcileCountsThePrimary() {
+        // a row the replica has not caught up with yet
+        primary.update("INSERT INTO my_user (id, user_name, password) VALUES (?, 'not-replicated', 'pw')", USER_ID + 1);
+
+        userStatsService.reconcile();
+
+        assertEquals((long) primary.queryForObject("SELECT COUNT(*) FROM my_user WHERE deleted_at IS NULL", Long.class),
+                userStatsService.getStats().getTotalUsers());
+    }
+
+    private String userNameIn(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT user_name FROM my_user WHERE id = ?", String.class, USER_ID);
+    }
+}
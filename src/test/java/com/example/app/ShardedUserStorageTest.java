@@ -0,0 +1,159 @@
+package com.example.app;
+
+import com.example.app.entity.User;
+import com.example.app.repository.ShardedUserStorage;
+import com.example.app.repository.UserIdGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShardedUserStorageTest {
+    private static final int SHARDS = 3;
+    private static final int USERS = 60;
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    private ShardedUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        // a fresh set of local H2 databases per test
+        String run = UUID.randomUUID().toString();
+        List<DataSource> dataSources = new ArrayList<>();
+        for (int i = 0; i < SHARDS; i++) {
+            dataSources.add(new DriverManagerDataSource("jdbc:h2:mem:shard" + i + "-" + run + ";DB_CLOSE_DELAY=-1"));
+        }
+        userStorage = new ShardedUserStorage(dataSources, new UserIdGenerator(1));
+        userStorage.createSchema();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        userStorage.destroy();
+    }
+
+    @Test
+    void testUsersSpreadAcrossShardsAndMergeInIdOrder() {
+        Set<Integer> usedShards = new HashSet<>();
+        for (int i = 0; i < USERS; i++) {
+            User saved = userStorage.insert(new User(TestHelper.USER_NAME + i, TestHelper.PASSWORD));
+            usedShards.add(userStorage.shardFor(saved.getId()));
+            assertTrue(saved.getId() <= MAX_SAFE_INTEGER);
+        }
+
+        List<User> all = userStorage.findAll();
+
+        assertEquals(SHARDS, usedShards.size());
+        assertEquals(USERS, userStorage.count());
+        assertEquals(USERS, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getId() < all.get(i).getId());
+        }
+    }
+
+    @Test
+    void testSingleShardUpdate() {
+        User saved = userStorage.insert(new User(TestHelper.USER_NAME, TestHelper.PASSWORD));
+
+        Optional<User> updated = userStorage.update(saved.getId(), user -> user.setUserName(TestHelper.UPDATED_USER_NAME));
+
+        assertEquals(TestHelper.UPDATED_USER_NAME, updated.get().getUserName());
+        assertEquals(TestHelper.UPDATED_USER_NAME, userStorage.findById(saved.getId()).get().getUserName());
+        assertEquals(TestHelper.PASSWORD, userStorage.findById(saved.getId()).get().getPassword());
+    }
+
+    @Test
+    void testUpdateNeverResurrectsDeletedUsers() {
+        User deleted = userStorage.insert(new User(TestHelper.USER_NAME, TestHelper.PASSWORD));
+        User purged = userStorage.insert(new User(TestHelper.USER_NAME, TestHelper.PASSWORD));
+        userStorage.softDeleteById(deleted.getId(), Instant.now());
+        userStorage.softDeleteById(purged.getId(), Instant.now().minusSeconds(60));
+        userStorage.purgeDeletedBefore(Instant.now().minusSeconds(30), 100);
+
+        assertFalse(userStorage.update(deleted.getId(), user -> user.setUserName(TestHelper.UPDATED_USER_NAME)).isPresent());
+        assertFalse(userStorage.update(purged.getId(), user -> user.setUserName(TestHelper.UPDATED_USER_NAME)).isPresent());
+        assertEquals(0, userStorage.count());
+        assertEquals(1, userStorage.countDeleted());
+    }
+
+    @Test
+    void testFindAllByIdAcrossShards() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(userStorage.insert(new User(TestHelper.USER_NAME + i, TestHelper.PASSWORD)).getId());
+        }
+
+        List<User> found = userStorage.findAllById(Arrays.asList(ids.get(7), ids.get(2), Long.MAX_VALUE, ids.get(5)));
+
+        assertEquals(Arrays.asList(ids.get(2), ids.get(5), ids.get(7)),
+                found.stream().map(User::getId).toList());
+    }
+
+    @Test
+    void testSoftDeleteHidesUserUntilPurged() {
+        User saved = userStorage.insert(new User(TestHelper.USER_NAME, TestHelper.PASSWORD));
+
+        assertTrue(userStorage.softDeleteById(saved.getId(), Instant.now().minusSeconds(60)));
+        assertFalse(userStorage.softDeleteById(saved.getId(), Instant.now()));
+        assertFalse(userStorage.findById(saved.getId()).isPresent());
+        assertEquals(0, userStorage.count());
+        assertEquals(1, userStorage.countDeleted());
+
+        assertEquals(1, userStorage.purgeDeletedBefore(Instant.now(), 100));
+        assertEquals(0, userStorage.countDeleted());
+    }
+
+    @Test
+    void testPurgeLimitIsSharedAcrossShards() {
+        for (int i = 0; i < USERS; i++) {
+            User saved = userStorage.insert(new User(TestHelper.USER_NAME + i, TestHelper.PASSWORD));
+            userStorage.softDeleteById(saved.getId(), Instant.now().minusSeconds(60));
+        }
+
+        // a limit below the shard count still drains every shard, SHARDS - 1 rows at a time at most
+        int calls = 0;
+        while (userStorage.countDeleted() > 0) {
+            assertTrue(userStorage.purgeDeletedBefore(Instant.now(), SHARDS - 1) <= SHARDS - 1);
+            assertTrue(++calls <= USERS * SHARDS);
+        }
+        assertEquals(0, userStorage.count());
+    }
+
+    @Test
+    void testBulkInsertRoutesByShardAndStreamsInIdOrder() {
+        // imported IDs keep their value, so each must land on the shard that lookups will ask
+        List<User> imported = new ArrayList<>();
+        for (long id = USERS; id > 0; id--) {
+            User user = new User(TestHelper.USER_NAME + id, TestHelper.PASSWORD);
+            user.setId(id);
+            imported.add(user);
+        }
+        userStorage.insertAll(imported);
+        userStorage.softDeleteById(7L, Instant.now());
+
+        List<Long> streamed = new ArrayList<>();
+        userStorage.streamAll(4, user -> streamed.add(user.getId()));
+
+        assertEquals(USERS - 1, streamed.size());
+        assertFalse(streamed.contains(7L));
+        for (int i = 1; i < streamed.size(); i++) {
+            assertTrue(streamed.get(i - 1) < streamed.get(i));
+        }
+        assertEquals(TestHelper.USER_NAME + 42, userStorage.findById(42L).get().getUserName());
+        assertEquals(USERS - 1, userStorage.count());
+    }
+}
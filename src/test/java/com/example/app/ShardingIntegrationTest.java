@@ -0,0 +1,153 @@
+package com.example.app;
+
+import com.example.app.dto.UserResponse;
+import com.example.app.entity.User;
+import com.example.app.repository.ShardedUserStorage;
+import com.example.app.repository.UserStorage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Boots the application with sharding on, three H2 shards and a {@code spring.datasource}
+ * of its own, and checks that the API, bulk export and import included, works end to end
+ * without touching the JPA table.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-jpa",
+        "app.sharding.enabled=true",
+        "app.sharding.shards[0].url=jdbc:h2:mem:ctx-shard0;DB_CLOSE_DELAY=-1",
+        "app.sharding.shards[1].url=jdbc:h2:mem:ctx-shard1;DB_CLOSE_DELAY=-1",
+        "app.sharding.shards[2].url=jdbc:h2:mem:ctx-shard2;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+public class ShardingIntegrationTest {
+    private static final long MAX_SAFE_INTEGER = (1L << 53) - 1;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    // spring.datasource, i.e. the JPA-managed my_user table
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testShardedStorageReplacesJpa() {
+        assertTrue(userStorage instanceof ShardedUserStorage);
+        assertEquals(3, ((ShardedUserStorage) userStorage).getShardCount());
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testUserLifecycleOnShards() throws Exception {
+        long usersBefore = userStorage.count();
+
+        MvcResult added = mockMvc.perform(post(TestHelper.ADD_USER_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TestHelper.USER_DTO)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long userId = objectMapper.readValue(added.getResponse().getContentAsString(), UserResponse.class).getId();
+        assertTrue(userId > 0 && userId <= MAX_SAFE_INTEGER);
+
+        mockMvc.perform(get(TestHelper.GET_USER_URL, userId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value(TestHelper.USER_NAME));
+        mockMvc.perform(get(TestHelper.GET_ALL_USERS_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id").value(hasItem(userId)));
+        mockMvc.perform(get(TestHelper.GET_USER_STATS_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalUsers").value(usersBefore + 1));
+
+        mockMvc.perform(put(TestHelper.UPDATE_USER_URL, userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TestHelper.UPDATED_USER_DTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value(TestHelper.UPDATED_USER_NAME));
+        mockMvc.perform(get(TestHelper.GET_USER_URL, userId))
+                .andExpect(jsonPath("$.userName").value(TestHelper.UPDATED_USER_NAME));
+
+        mockMvc.perform(delete(TestHelper.DELETE_USER_URL, userId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(TestHelper.GET_USER_URL, userId))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put(TestHelper.UPDATE_USER_URL, userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TestHelper.USER_DTO)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(TestHelper.GET_ALL_USERS_URL))
+                .andExpect(jsonPath("$[*].id").value(not(hasItem(userId))));
+        mockMvc.perform(get(TestHelper.GET_USER_STATS_URL))
+                .andExpect(jsonPath("$.totalUsers").value(usersBefore));
+
+        assertEquals(0L, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM my_user", Long.class));
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testExportAndImportUseTheShards() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            users.add(userStorage.insert(new User(TestHelper.USER_NAME + i, TestHelper.PASSWORD)));
+        }
+
+        MvcResult export = mockMvc.perform(get(TestHelper.EXPORT_USERS_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] file = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // restore into empty shards
+        List<Long> exportedIds = new ArrayList<>();
+        userStorage.streamAll(100, user -> exportedIds.add(user.getId()));
+        exportedIds.forEach(id -> userStorage.softDeleteById(id, Instant.now()));
+        userStorage.purgeDeletedBefore(Instant.now().plusSeconds(1), Integer.MAX_VALUE);
+        assertEquals(0, userStorage.count());
+
+        mockMvc.perform(post(TestHelper.IMPORT_USERS_URL)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(exportedIds.size()));
+
+        for (User user : users) {
+            mockMvc.perform(get(TestHelper.GET_USER_URL, user.getId()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.userName").value(user.getUserName()));
+        }
+        assertEquals(exportedIds.size(), userStorage.count());
+        assertEquals(0L, (long) jdbcTemplate.queryForObject("SELECT COUNT(*) FROM my_user", Long.class));
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.app;
+
+import com.example.app.dto.UserBatchRequest;
+import com.example.app.dto.UserResponse;
+import com.example.app.dto.UserStatsResponse;
+import com.example.app.entity.User;
+import com.example.app.exception.GlobalExceptionHandler;
+import com.example.app.repository.UserStorage;
+import com.example.app.service.UserTombstonePurger;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Soft delete and purge on the JPA table, in a database of its own. Retention is zero so
+ * a deleted user can be purged straight away; the scheduled purge is pushed out of the way
+ * and {@link UserTombstonePurger#purge()} is called directly. Updates are checked against
+ * deletes that commit before them and ones that race with them.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:soft-delete",
+        "app.soft-delete.retention=0s",
+        "app.soft-delete.purge.interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+public class SoftDeleteIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Autowired
+    private UserTombstonePurger purger;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testDeletedUserIsHiddenThenPurged() throws Exception {
+        long userId = addUser();
+        long totalBefore = stats().getTotalUsers();
+
+        mockMvc.perform(delete(TestHelper.DELETE_USER_URL, userId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(TestHelper.GET_USER_URL, userId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode").value(GlobalExceptionHandler.USER_NOT_FOUND));
+        mockMvc.perform(post(TestHelper.BATCH_GET_USERS_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(UserBatchRequest.builder()
+                                .ids(List.of(userId))
+                                .build())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users").isEmpty())
+                .andExpect(jsonPath("$.missingIds[0]").value(userId));
+        assertEquals(totalBefore - 1, stats().getTotalUsers());
+        assertFalse(Arrays.stream(allUsers()).anyMatch(user -> user.getId() == userId));
+        // still in the table, only marked
+        assertEquals(1, countRows(userId));
+
+        double purgedBefore = meterRegistry.get("user.purge.purged").counter().count();
+        purger.purge();
+
+        assertEquals(0, countRows(userId));
+        assertTrue(meterRegistry.get("user.purge.purged").counter().count() >= purgedBefore + 1);
+        assertEquals(0.0, meterRegistry.get("user.purge.backlog").gauge().value(), 0.0);
+
+        // nothing left to purge: an idle run doesn't count as a batch
+        long batchesBefore = meterRegistry.get("user.purge.batch.size").summary().count();
+        purger.purge();
+        assertEquals(batchesBefore, meterRegistry.get("user.purge.batch.size").summary().count());
+    }
+
+    @Test
+    void testUpdateNeverResurrectsDeletedUsers() throws Exception {
+        User deleted = userStorage.insert(new User(TestHelper.USER_NAME, TestHelper.PASSWORD));
+        User purged = userStorage.insert(new User(TestHelper.USER_NAME, TestHelper.PASSWORD));
+        User racing = userStorage.insert(new User(TestHelper.USER_NAME, TestHelper.PASSWORD));
+        userStorage.softDeleteById(deleted.getId(), Instant.now());
+        userStorage.softDeleteById(purged.getId(), Instant.now().minusSeconds(60));
+        userStorage.purgeDeletedBefore(Instant.now().minusSeconds(30), 100);
+
+        assertFalse(userStorage.update(deleted.getId(), user -> user.setUserName(TestHelper.UPDATED_USER_NAME)).isPresent());
+        assertFalse(userStorage.update(purged.getId(), user -> user.setUserName(TestHelper.UPDATED_USER_NAME)).isPresent());
+        assertNotNull(deletedAt(deleted.getId()));
+        assertEquals(0, countRows(purged.getId()));
+
+        // a delete issued while the update holds the row waits for it, and the update's save doesn't undo it
+        CompletableFuture<Boolean> softDelete = new CompletableFuture<>();
+        assertTrue(userStorage.update(racing.getId(), user -> {
+            user.setUserName(TestHelper.UPDATED_USER_NAME);
+            CompletableFuture.runAsync(() -> softDelete.complete(userStorage.softDeleteById(racing.getId(), Instant.now())));
+            assertThrows(TimeoutException.class, () -> softDelete.get(200, TimeUnit.MILLISECONDS));
+        }).isPresent());
+
+        assertTrue(softDelete.get(5, TimeUnit.SECONDS));
+        assertNotNull(deletedAt(racing.getId()));
+        assertFalse(userStorage.findById(racing.getId()).isPresent());
+    }
+
+    private long addUser() throws Exception {
+        String body = mockMvc.perform(post(TestHelper.ADD_USER_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(TestHelper.USER_DTO)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, UserResponse.class).getId();
+    }
+
+    private UserStatsResponse stats() throws Exception {
+        String body = mockMvc.perform(get(TestHelper.GET_USER_STATS_URL))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, UserStatsResponse.class);
+    }
+
+    private UserResponse[] allUsers() throws Exception {
+        String body = mockMvc.perform(get(TestHelper.GET_ALL_USERS_URL))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, UserResponse[].class);
+    }
+
+    private Timestamp deletedAt(long userId) {
+        return jdbcTemplate.queryForObject("SELECT deleted_at FROM my_user WHERE id = ?", Timestamp.class, userId);
+    }
+
+    private int countRows(long userId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM my_user WHERE id = ?", Integer.class, userId);
+    }
+}
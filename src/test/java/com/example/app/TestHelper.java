@@ -37,7 +37,11 @@ public class TestHelper {
             .build();
 
     public static final String GET_ALL_USERS_URL = "/api/v1/users/all";
+    public static final String GET_USER_STATS_URL = "/api/v1/users/stats";
     public static final String GET_USER_URL = "/api/v1/users/{userId}";
+    public static final String BATCH_GET_USERS_URL = "/api/v1/users/batch-get";
+    public static final String EXPORT_USERS_URL = "/api/v1/users/export";
+    public static final String IMPORT_USERS_URL = "/api/v1/users/import";
     public static final String ADD_USER_URL = "/api/v1/users/add";
     public static final String UPDATE_USER_URL = "/api/v1/users/update/{userId}";
     public static final String DELETE_USER_URL = "/api/v1/users/delete/{userId}";
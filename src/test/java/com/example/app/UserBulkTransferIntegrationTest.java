@@ -0,0 +1,203 @@
+package com.example.app;
+
+import com.example.app.dto.UserDto;
+import com.example.app.dto.UserResponse;
+import com.example.app.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Export and import as ADMIN against a database of its own, since imports move the
+ * identity column and would disturb the ID-dependent tests in other classes.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:bulk-transfer")
+@AutoConfigureMockMvc
+public class UserBulkTransferIntegrationTest {
+    private static final int MAGIC = 0x554D5532;
+    private static final byte RECORD = 1;
+    private static final byte END = 0;
+    private static final int END_MARKER_BYTES = Byte.BYTES + Long.BYTES;
+    private static final int IMPORT_BATCH_SIZE = 1_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testExportThenRestoreIntoEmptyTable() throws Exception {
+        long first = addUser("bulk-first");
+        long second = addUser("bulk-second");
+
+        MvcResult export = mockMvc.perform(get(TestHelper.EXPORT_USERS_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] file = mockMvc.perform(asyncDispatch(export))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Map<Long, String> exported = readFile(file);
+        assertEquals("bulk-first", exported.get(first));
+        assertEquals("bulk-second", exported.get(second));
+
+        // simulate restoring into a fresh database
+        jdbcTemplate.execute("DELETE FROM my_user");
+        jdbcTemplate.execute("ALTER TABLE my_user ALTER COLUMN id RESTART WITH 1");
+
+        mockMvc.perform(post(TestHelper.IMPORT_USERS_URL)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(exported.size()))
+                .andExpect(jsonPath("$.bytes").value(file.length));
+
+        mockMvc.perform(get(TestHelper.GET_USER_URL, second))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userName").value("bulk-second"));
+
+        long maxImportedId = exported.keySet().stream().mapToLong(Long::longValue).max().getAsLong();
+        assertTrue(addUser("after-restore") > maxImportedId);
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testFailedImportKeepsCommittedBatchesAndResetsIdentity() throws Exception {
+        long existing = addUser("bulk-existing");
+
+        // one full committed batch, then a record that collides with an existing user
+        long firstImportedId = existing + 1_000_000;
+        long[] ids = new long[IMPORT_BATCH_SIZE + 1];
+        for (int i = 0; i < IMPORT_BATCH_SIZE; i++) {
+            ids[i] = firstImportedId + i;
+        }
+        ids[IMPORT_BATCH_SIZE] = existing;
+
+        mockMvc.perform(post(TestHelper.IMPORT_USERS_URL)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(writeFile(ids)))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.errorCode").value(GlobalExceptionHandler.IMPORT_FAILED))
+                .andExpect(jsonPath("$.errorMessage").value(containsString(
+                        "records " + (IMPORT_BATCH_SIZE + 1) + "-" + (IMPORT_BATCH_SIZE + 1))));
+
+        mockMvc.perform(get(TestHelper.GET_USER_URL, firstImportedId))
+                .andExpect(status().isOk());
+        assertTrue(addUser("after-failed-import") >= firstImportedId + IMPORT_BATCH_SIZE);
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testTruncatedImportIsRejected() throws Exception {
+        byte[] file = writeFile(System.nanoTime());
+
+        // cuts into the record itself, past the end marker
+        mockMvc.perform(post(TestHelper.IMPORT_USERS_URL)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOf(file, file.length - END_MARKER_BYTES - 2)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value(containsString("reading record 1")));
+    }
+
+    @Test
+    @WithMockUser(roles = {"USER", "ADMIN"})
+    void testImportWithoutEndMarkerIsRejected() throws Exception {
+        long id = System.nanoTime();
+        byte[] file = writeFile(id);
+
+        // what an export that failed after its last complete record leaves behind
+        mockMvc.perform(post(TestHelper.IMPORT_USERS_URL)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(Arrays.copyOf(file, file.length - END_MARKER_BYTES)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorMessage").value(containsString("Missing end marker after 1 records")));
+    }
+
+    private long addUser(String userName) throws Exception {
+        String body = mockMvc.perform(post(TestHelper.ADD_USER_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                UserDto.builder().userName(userName).password(TestHelper.PASSWORD).build())))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(body, UserResponse.class).getId();
+    }
+
+    // writes the bulk format independently of the production codec
+    private static byte[] writeFile(long... ids) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        for (long id : ids) {
+            out.writeByte(RECORD);
+            out.writeLong(id);
+            writeString(out, "bulk-" + id);
+            writeString(out, TestHelper.PASSWORD);
+        }
+        out.writeByte(END);
+        out.writeLong(ids.length);
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(encoded.length);
+        out.write(encoded);
+    }
+
+    private static Map<Long, String> readFile(byte[] file) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(file));
+        assertEquals(MAGIC, in.readInt());
+        Map<Long, String> userNames = new LinkedHashMap<>();
+        while (in.readByte() == RECORD) {
+            long id = in.readLong();
+            userNames.put(id, readString(in));
+            readString(in);
+        }
+        assertEquals(userNames.size(), in.readLong());
+        assertEquals(-1, in.read());
+        return userNames;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
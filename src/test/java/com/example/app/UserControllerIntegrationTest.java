@@ -1,7 +1,9 @@
 package com.example.app;
 
+import com.example.app.dto.UserBatchRequest;
 import com.example.app.dto.UserDto;
 import com.example.app.dto.UserResponse;
+import com.example.app.exception.GlobalExceptionHandler;
 import com.example.app.mapper.UserMapper;
 import com.example.app.service.UserServiceImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,6 +21,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -186,6 +191,72 @@ public class UserControllerIntegrationTest {
     void testGetUserByIdAsUserNotFound() throws Exception {
         mockMvc.perform(get(TestHelper.GET_USER_URL, TestHelper.USER_ID_2)
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.errorCode").value(GlobalExceptionHandler.USER_NOT_FOUND));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testBatchGetUsersReportsMissingIds() throws Exception {
+        UserBatchRequest request = UserBatchRequest.builder()
+                .ids(Arrays.asList(Long.MAX_VALUE, Long.MAX_VALUE - 1))
+                .build();
+
+        mockMvc.perform(post(TestHelper.BATCH_GET_USERS_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users").isEmpty())
+                .andExpect(jsonPath("$.missingIds.length()").value(2));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testExportUsersAsUSERUnauthorized() throws Exception {
+        mockMvc.perform(get(TestHelper.EXPORT_USERS_URL))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testImportUsersAsUSERUnauthorized() throws Exception {
+        mockMvc.perform(post(TestHelper.IMPORT_USERS_URL)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .content(new byte[0]))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testGetUserStatsAsUSER() throws Exception {
+        mockMvc.perform(get(TestHelper.GET_USER_STATS_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalUsers").isNumber());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void testBatchGetUsersRejectsOversizedRequest() throws Exception {
+        UserBatchRequest request = UserBatchRequest.builder()
+                .ids(LongStream.rangeClosed(1, UserServiceImpl.MAX_BATCH_LOOKUP_SIZE + 1).boxed().toList())
+                .build();
+
+        mockMvc.perform(post(TestHelper.BATCH_GET_USERS_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errorCode").value(GlobalExceptionHandler.VALIDATION_FAILED));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    public void testBatchGetWithoutIdsIsRejected() throws Exception {
+        for (String body : Arrays.asList("{}", "{\"ids\":null}")) {
+            mockMvc.perform(post(TestHelper.BATCH_GET_USERS_URL)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errorCode").value(GlobalExceptionHandler.VALIDATION_FAILED));
+        }
     }
-}
\ No newline at end of file
+}
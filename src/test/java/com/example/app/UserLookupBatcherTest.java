@@ -0,0 +1,155 @@
+package com.example.app;
+
+import com.example.app.entity.User;
+import com.example.app.repository.UserStorage;
+import com.example.app.service.UserLookupBatcher;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class UserLookupBatcherTest {
+    // the tests below dispatch on batch size, never on the timer
+    private static final long NEVER_FLUSH_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Mock
+    private UserStorage userStorage;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserLookupBatcher batcher;
+    private final Queue<Set<Long>> queriedBatches = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batcher != null) {
+            batcher.destroy();
+        }
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneQuery() throws Exception {
+        List<Long> requestedIds = List.of(1L, 2L, 3L, 1L, 2L, 3L, 1L, 2L);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch allLoaded = new CountDownLatch(requestedIds.size());
+        // the query holds until every caller has registered, so late duplicates find it in flight
+        when(userStorage.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Set<Long> ids = new HashSet<>();
+            invocation.<Iterable<Long>>getArgument(0).forEach(ids::add);
+            queriedBatches.add(ids);
+            assertTrue(allLoaded.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            return List.of(user(1L, TestHelper.USER_NAME), user(2L, TestHelper.UPDATED_USER_NAME));
+        });
+        batcher = new UserLookupBatcher(userStorage, meterRegistry, true, NEVER_FLUSH_MICROS, 3, 1, TIMEOUT_MILLIS);
+
+        ExecutorService callers = Executors.newFixedThreadPool(requestedIds.size());
+        try {
+            List<Future<CompletableFuture<Optional<User>>>> submitted = new ArrayList<>();
+            for (Long id : requestedIds) {
+                submitted.add(callers.submit(() -> {
+                    start.await();
+                    CompletableFuture<Optional<User>> result = batcher.load(id);
+                    allLoaded.countDown();
+                    return result;
+                }));
+            }
+            start.countDown();
+
+            List<CompletableFuture<Optional<User>>> results = new ArrayList<>();
+            for (Future<CompletableFuture<Optional<User>>> future : submitted) {
+                results.add(future.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+            }
+            for (int i = 0; i < requestedIds.size(); i++) {
+                Optional<User> user = results.get(i).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                long id = requestedIds.get(i);
+                assertEquals(id != 3L, user.isPresent());
+                user.ifPresent(found -> assertEquals(id, (long) found.getId()));
+                assertSame(results.get(requestedIds.indexOf(id)), results.get(i));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(1, queriedBatches.size());
+        assertEquals(Set.of(1L, 2L, 3L), queriedBatches.peek());
+        DistributionSummary batchSizes = meterRegistry.get("user.lookup.batch.size").summary();
+        assertEquals(1, batchSizes.count());
+        assertEquals(3.0, batchSizes.totalAmount(), 0.0);
+    }
+
+    @Test
+    void testFailedQueryFailsEveryCallerInTheBatch() {
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("connection lost");
+        when(userStorage.findAllById(anyIterable())).thenThrow(failure);
+        batcher = new UserLookupBatcher(userStorage, meterRegistry, true, NEVER_FLUSH_MICROS, 2, 1, TIMEOUT_MILLIS);
+
+        CompletableFuture<Optional<User>> first = batcher.load(1L);
+        DataAccessResourceFailureException thrown =
+                assertThrows(DataAccessResourceFailureException.class, () -> batcher.findById(2L));
+
+        assertSame(failure, thrown);
+        assertTrue(first.isCompletedExceptionally());
+    }
+
+    @Test
+    void testShutdownFailsUndispatchedLookups() {
+        batcher = new UserLookupBatcher(userStorage, meterRegistry, true, NEVER_FLUSH_MICROS, 64, 1, TIMEOUT_MILLIS);
+        CompletableFuture<Optional<User>> queued = batcher.load(1L);
+
+        batcher.destroy();
+
+        assertTrue(queued.isCompletedExceptionally());
+        assertTrue(batcher.load(2L).isCompletedExceptionally());
+        assertThrows(IllegalStateException.class, () -> batcher.findById(3L));
+        verify(userStorage, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void testFindByIdTimesOut() {
+        batcher = new UserLookupBatcher(userStorage, meterRegistry, true, NEVER_FLUSH_MICROS, 64, 1, 50);
+
+        assertThrows(QueryTimeoutException.class, () -> batcher.findById(1L));
+        assertFalse(batcher.load(1L).isDone());
+    }
+
+    private static User user(long id, String userName) {
+        User user = new User(userName, TestHelper.PASSWORD);
+        user.setId(id);
+        return user;
+    }
+}
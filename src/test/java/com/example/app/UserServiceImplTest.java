@@ -1,12 +1,16 @@
 package com.example.app;
 
+import com.example.app.dto.UserBatchResponse;
 import com.example.app.dto.UserDto;
 import com.example.app.dto.UserResponse;
 import com.example.app.entity.User;
+import com.example.app.exception.InvalidRequestException;
 import com.example.app.exception.UserNotFoundException;
 import com.example.app.mapper.UserMapper;
-import com.example.app.repository.UserRepository;
+import com.example.app.repository.UserStorage;
+import com.example.app.service.UserLookupBatcher;
 import com.example.app.service.UserServiceImpl;
+import com.example.app.service.UserStatsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -17,22 +21,38 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class UserServiceImplTest {
     @Mock
-    private UserRepository userRepository;
+    private UserStorage userStorage;
 
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private UserStatsService userStatsService;
+
+    @Mock
+    private UserLookupBatcher userLookupBatcher;
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -53,18 +73,19 @@ public class UserServiceImplTest {
         // Mocking userMapper behavior
         when(userMapper.userDtoToUser(any(UserDto.class))).thenReturn(TestHelper.USER);
 
-        // Mocking userRepository behavior
-        when(userRepository.save(any(User.class))).thenReturn(TestHelper.USER);
+        // Mocking userStorage behavior
+        when(userStorage.insert(any(User.class))).thenReturn(TestHelper.USER);
 
         // Testing the addUser method
         assertNotNull(userService.addUser(TestHelper.USER_DTO));
         assertEquals(TestHelper.USER_NAME, userService.addUser(TestHelper.USER_DTO).getUserName());
+        verify(userStatsService, times(2)).recordUserAdded();
     }
 
     @Test
     void testGetAllUsers() {
-        // Mocking userRepository behavior
-        when(userRepository.findAll()).thenReturn(Collections.singletonList(TestHelper.USER));
+        // Mocking userStorage behavior
+        when(userStorage.findAll()).thenReturn(Collections.singletonList(TestHelper.USER));
 
         // Testing the getAllUsers method
         assertNotNull(userService.getAllUsers());
@@ -73,8 +94,8 @@ public class UserServiceImplTest {
 
     @Test
     void testGetUserById() {
-        // Mocking userRepository behavior
-        when(userRepository.findById(TestHelper.USER_ID))
+        // Mocking userStorage behavior
+        when(userStorage.findById(TestHelper.USER_ID))
                 .thenReturn(Optional.of(new User(TestHelper.USER_NAME, TestHelper.PASSWORD)));
 
         // Testing the getUserById method
@@ -83,11 +104,44 @@ public class UserServiceImplTest {
 
     }
 
+    @Test
+    void testGetUsersByIds() {
+        User first = new User(TestHelper.USER_NAME, TestHelper.PASSWORD);
+        first.setId(1L);
+        User third = new User(TestHelper.UPDATED_USER_NAME, TestHelper.PASSWORD);
+        third.setId(3L);
+
+        // Mocking userStorage behavior, returned out of request order
+        when(userStorage.findAllById(anyIterable())).thenReturn(Arrays.asList(third, first));
+
+        // Testing the getUsersByIds method
+        UserBatchResponse response = userService.getUsersByIds(Arrays.asList(3L, 2L, 1L, 3L));
+
+        assertEquals(2, response.getUsers().size());
+        assertEquals(Long.valueOf(3L), response.getUsers().get(0).getId());
+        assertEquals(Long.valueOf(1L), response.getUsers().get(1).getId());
+        assertEquals(Collections.singletonList(2L), response.getMissingIds());
+    }
+
+    @Test
+    void testGetUsersByIds_TooManyIds() {
+        List<Long> userIds = LongStream.rangeClosed(1, UserServiceImpl.MAX_BATCH_LOOKUP_SIZE + 1)
+                .boxed()
+                .collect(Collectors.toList());
+
+        // Act and Assert
+        assertThrows(InvalidRequestException.class, () -> userService.getUsersByIds(userIds));
+    }
+
     @Test
     public void testUpdateUser() {
-        // Mocking repository behavior
-        when(userRepository.findById(TestHelper.USER_ID)).thenReturn(Optional.of(TestHelper.USER));
-        when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // Mocking storage behavior
+        User stored = new User(TestHelper.USER_NAME, TestHelper.PASSWORD);
+        stored.setId(TestHelper.USER_ID);
+        when(userStorage.update(eq(TestHelper.USER_ID), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<User>>getArgument(1).accept(stored);
+            return Optional.of(stored);
+        });
 
         // Mocking mapper behavior
         when(userMapper.userDtoToUser(TestHelper.USER_DTO)).thenReturn(TestHelper.USER);
@@ -102,8 +156,8 @@ public class UserServiceImplTest {
 
     @Test
     public void testUpdateUser_UserNotFound() {
-        // Mocking repository behavior for a non-existing user
-        when(userRepository.findById(TestHelper.USER_ID)).thenReturn(Optional.empty());
+        // Mocking storage behavior for a non-existing user
+        when(userStorage.update(eq(TestHelper.USER_ID), any())).thenReturn(Optional.empty());
 
         // Act and Assert
         assertThrows(UserNotFoundException.class, () -> userService.updateUser(TestHelper.USER_ID, TestHelper.USER_DTO));
@@ -111,8 +165,8 @@ public class UserServiceImplTest {
 
     @Test
     public void testDeleteUserById() {
-        // Mocking repository behavior
-        when(userRepository.findById(TestHelper.USER_ID)).thenReturn(Optional.of(TestHelper.USER));
+        // Mocking storage behavior
+        when(userStorage.softDeleteById(eq(TestHelper.USER_ID), any(Instant.class))).thenReturn(true);
 
         // Act
         UserResponse response = userService.deleteUserById(TestHelper.USER_ID);
@@ -120,12 +174,13 @@ public class UserServiceImplTest {
         // Assert
         assertNotNull(response);
         assertEquals(TestHelper.USER_ID, response.getId());
+        verify(userStatsService).recordUserDeleted();
     }
 
     @Test
     public void testDeleteUserById_UserNotFound() {
-        // Mocking repository behavior for a non-existing user
-        when(userRepository.findById(TestHelper.USER_ID)).thenReturn(Optional.empty());
+        // Mocking storage behavior for a non-existing or already deleted user
+        when(userStorage.softDeleteById(eq(TestHelper.USER_ID), any(Instant.class))).thenReturn(false);
 
         // Act and Assert
         assertThrows(UserNotFoundException.class, () -> userService.deleteUserById(TestHelper.USER_ID));
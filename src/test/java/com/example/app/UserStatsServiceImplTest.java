@@ -0,0 +1,53 @@
+package com.example.app;
+
+import com.example.app.repository.UserStorage;
+import com.example.app.service.UserStatsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.when;
+
+public class UserStatsServiceImplTest {
+    @Mock
+    private UserStorage userStorage;
+
+    @InjectMocks
+    private UserStatsServiceImpl userStatsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.initMocks(this);
+    }
+
+    @Test
+    void testReconcileKeepsChangesCommittedDuringCount() {
+        // an add and a delete commit while count() runs; the snapshot saw neither
+        when(userStorage.count()).thenAnswer(invocation -> {
+            userStatsService.recordUserAdded();
+            userStatsService.recordUserAdded();
+            userStatsService.recordUserDeleted();
+            return 10L;
+        });
+
+        userStatsService.reconcile();
+
+        assertEquals(11, userStatsService.getStats().getTotalUsers());
+    }
+
+    @Test
+    void testReconcileIgnoresChangesBeforeSnapshot() {
+        userStatsService.recordUserAdded();
+        userStatsService.recordUserAdded();
+        when(userStorage.count()).thenReturn(5L);
+
+        userStatsService.reconcile();
+        userStatsService.recordUserDeleted();
+
+        assertEquals(4, userStatsService.getStats().getTotalUsers());
+        assertEquals(2, userStatsService.getStats().getUsersAddedSinceStartup());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.app.benchmark;
+
+import com.example.app.exception.AccessDeniedException;
+import com.example.app.exception.GlobalExceptionHandler;
+import com.example.app.exception.UserNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures the 404/403 error path: throwing the domain exception from a realistic call
+ * depth and turning it into a response. The {@code legacy*} benchmarks reproduce the
+ * previous behaviour (full stack capture, eager message concatenation, raw string body).
+ *
+ * <p>Not picked up by surefire; run the {@link #main} method from the IDE or with
+ * {@code java -cp target/test-classes:<test classpath> com.example.app.benchmark.ErrorPathBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    // roughly the number of frames between the servlet container and UserServiceImpl
+    @Param({"20", "120"})
+    int stackDepth;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private long userId = 1;
+
+    @Benchmark
+    public Object legacyUserNotFound() {
+        long id = userId++;
+        try {
+            return throwAtDepth(stackDepth, () -> new LegacyException("User not found with id: " + id));
+        } catch (LegacyException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+        }
+    }
+
+    @Benchmark
+    public Object userNotFound() {
+        long id = userId++;
+        try {
+            return throwAtDepth(stackDepth, () -> new UserNotFoundException(id));
+        } catch (UserNotFoundException ex) {
+            return handler.handleUserNotFoundException(ex);
+        }
+    }
+
+    @Benchmark
+    public Object legacyAccessDenied() {
+        try {
+            return throwAtDepth(stackDepth,
+                    () -> new LegacyException("Access denied. User does not have the required role."));
+        } catch (LegacyException ex) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(ex.getMessage());
+        }
+    }
+
+    @Benchmark
+    public Object accessDenied() {
+        try {
+            return throwAtDepth(stackDepth, () -> AccessDeniedException.ROLE_REQUIRED);
+        } catch (AccessDeniedException ex) {
+            return handler.handleAccessDeniedException(ex);
+        }
+    }
+
+    private static Object throwAtDepth(int depth, Supplier<? extends RuntimeException> exception) {
+        if (depth == 0) {
+            throw exception.get();
+        }
+        return throwAtDepth(depth - 1, exception);
+    }
+
+    private static final class LegacyException extends RuntimeException {
+        LegacyException(String message) {
+            super(message);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ErrorPathBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
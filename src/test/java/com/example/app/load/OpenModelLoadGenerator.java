@@ -0,0 +1,163 @@
+package com.example.app.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load generator: requests are started on a fixed schedule whether or not
+ * earlier ones have completed, and latency is measured from the <em>intended</em> start
+ * time, so a stalled server shows up in the percentiles instead of silently lowering
+ * the offered load (coordinated omission).
+ */
+public class OpenModelLoadGenerator {
+
+    public static final String ALL = "ALL";
+
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final Map<String, Supplier<CompletableFuture<Integer>>> operations = new LinkedHashMap<>();
+    private final Map<String, Integer> weights = new LinkedHashMap<>();
+
+    /**
+     * Registers an operation. The supplier starts one request and completes with its HTTP status.
+     */
+    public OpenModelLoadGenerator operation(String name, int weight, Supplier<CompletableFuture<Integer>> request) {
+        if (weight > 0) {
+            operations.put(name, request);
+            weights.put(name, weight);
+        }
+        return this;
+    }
+
+    public Report run(int requestsPerSecond, Duration warmup, Duration duration) throws InterruptedException {
+        String[] names = operations.keySet().toArray(new String[0]);
+        int[] cumulativeWeights = new int[names.length];
+        int totalWeight = 0;
+        for (int i = 0; i < names.length; i++) {
+            totalWeight += weights.get(names[i]);
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        Report report = new Report(names);
+        LongAdder outstanding = new LongAdder();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + warmup.toNanos();
+        long endNanos = measureFromNanos + duration.toNanos();
+
+        for (long i = 0; ; i++) {
+            long intendedNanos = startNanos + i * intervalNanos;
+            if (intendedNanos >= endNanos) {
+                break;
+            }
+            long waitNanos = intendedNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            String name = pick(names, cumulativeWeights, totalWeight);
+            boolean measured = intendedNanos >= measureFromNanos;
+            outstanding.increment();
+            start(operations.get(name)).whenComplete((status, error) -> {
+                if (measured) {
+                    long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedNanos);
+                    report.record(name, latencyMicros, error != null || status >= 500);
+                }
+                outstanding.decrement();
+            });
+        }
+
+        long drainDeadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        while (outstanding.sum() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        report.elapsedNanos = System.nanoTime() - measureFromNanos;
+        return report;
+    }
+
+    private static CompletableFuture<Integer> start(Supplier<CompletableFuture<Integer>> request) {
+        try {
+            return request.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String pick(String[] names, int[] cumulativeWeights, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return names[i];
+            }
+        }
+        return names[names.length - 1];
+    }
+
+    /**
+     * Per-operation latency histograms (microseconds) and counters, plus an {@link #ALL} aggregate.
+     */
+    public static class Report {
+        private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+        private final Map<String, LongAdder> errors = new LinkedHashMap<>();
+        private long elapsedNanos;
+
+        Report(String[] names) {
+            for (String name : names) {
+                histograms.put(name, new ConcurrentHistogram(3));
+                errors.put(name, new LongAdder());
+            }
+            histograms.put(ALL, new ConcurrentHistogram(3));
+            errors.put(ALL, new LongAdder());
+        }
+
+        void record(String name, long latencyMicros, boolean error) {
+            histograms.get(name).recordValue(latencyMicros);
+            histograms.get(ALL).recordValue(latencyMicros);
+            if (error) {
+                errors.get(name).increment();
+                errors.get(ALL).increment();
+            }
+        }
+
+        public Map<String, Histogram> getHistograms() {
+            return histograms;
+        }
+
+        public long getErrors(String name) {
+            return errors.get(name).sum();
+        }
+
+        public double getThroughput(String name) {
+            return histograms.get(name).getTotalCount() * 1e9 / Math.max(elapsedNanos, 1);
+        }
+
+        public double getPercentileMillis(String name, double percentile) {
+            return histograms.get(name).getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("%-8s %9s %7s %9s %10s %10s %10s %10s%n",
+                    "op", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+            histograms.forEach((name, histogram) -> out.printf("%-8s %9d %7d %9.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    name,
+                    histogram.getTotalCount(),
+                    getErrors(name),
+                    getThroughput(name),
+                    getPercentileMillis(name, 50),
+                    getPercentileMillis(name, 99),
+                    getPercentileMillis(name, 99.9),
+                    histogram.getMaxValue() / 1000.0));
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.app.load;
+
+import com.example.app.TestHelper;
+import com.example.app.dto.UserDto;
+import com.example.app.dto.UserResponse;
+import com.example.app.entity.User;
+import com.example.app.repository.UserBulkRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives a GET/POST/PUT/DELETE mix against the embedded server and fails if p50/p99/p99.9
+ * latencies regress past {@code load-test-baseline.properties} by more than the tolerance.
+ * Tagged {@code load}, so it only runs with {@code mvn test -Pload-test}.
+ *
+ * <p>Tunable with system properties: {@code load.users}, {@code load.rate} (requests/s),
+ * {@code load.warmupSeconds}, {@code load.durationSeconds}, {@code load.mix}
+ * (e.g. {@code GET=70,POST=10,PUT=10,DELETE=10}), {@code load.httpVersion}
+ * ({@code HTTP_1_1} or {@code HTTP_2}, the latter negotiated as h2c) and {@code load.tolerance}.
+ *
+ * <p>No baseline is shipped: {@code -Dload.updateBaseline=true} measures one and stores it
+ * together with the machine, server and load parameters it was taken with. A comparison run
+ * defaults to the baseline's load parameters and fails if they were overridden, since
+ * percentiles taken under a different load say nothing about a regression.
+ * {@code -Dload.reportOnly=true} only prints the report (with machine and parameters) and
+ * asserts nothing, for comparisons such as {@code scripts/compare-servers.sh}.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class UserApiLoadTest {
+
+    private static final String BASELINE_RESOURCE = "/load-test-baseline.properties";
+    private static final Path BASELINE_SOURCE = Paths.get("src", "test", "resources", "load-test-baseline.properties");
+    private static final double[] PERCENTILES = {50, 99, 99.9};
+    private static final String[] PERCENTILE_KEYS = {"p50", "p99", "p999"};
+    private static final double MAX_ERROR_RATIO = 0.01;
+    private static final int SEED_BATCH_SIZE = 1_000;
+
+    // load.* parameters recorded with the baseline, and their defaults when neither is given
+    private static final Map<String, String> DEFAULT_PARAMETERS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_PARAMETERS.put("users", "10000");
+        DEFAULT_PARAMETERS.put("rate", "50");
+        DEFAULT_PARAMETERS.put("warmupSeconds", "5");
+        DEFAULT_PARAMETERS.put("durationSeconds", "30");
+        DEFAULT_PARAMETERS.put("mix", "GET=70,POST=10,PUT=10,DELETE=10");
+        DEFAULT_PARAMETERS.put("httpVersion", "HTTP_1_1");
+    }
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder().encodeToString(
+            (TestHelper.USER_ADMIN + ":" + TestHelper.USER_ADMIN_PASSWORD).getBytes(StandardCharsets.UTF_8));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserBulkRepository userBulkRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private WebServerApplicationContext webServerContext;
+
+    private final AtomicLong userNameSequence = new AtomicLong();
+    private final Queue<Long> createdIds = new ConcurrentLinkedQueue<>();
+    private Properties baseline;
+    private Map<String, String> parameters;
+    private HttpClient client;
+    private int seededUsers;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        baseline = readBaseline();
+        parameters = resolveParameters();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.valueOf(parameters.get("httpVersion")))
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        seedUsers(Integer.parseInt(parameters.get("users")));
+    }
+
+    private void seedUsers(int count) {
+        seededUsers = count;
+        List<User> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long id = 1; id <= seededUsers; id++) {
+            User user = new User("seed-" + id, TestHelper.PASSWORD);
+            user.setId(id);
+            batch.add(user);
+            if (batch.size() == SEED_BATCH_SIZE) {
+                userBulkRepository.batchInsert(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            userBulkRepository.batchInsert(batch);
+        }
+        userBulkRepository.resetIdentity();
+    }
+
+    @Test
+    void testLatencyWithinBaseline() throws Exception {
+        boolean updateBaseline = Boolean.getBoolean("load.updateBaseline");
+        boolean reportOnly = Boolean.getBoolean("load.reportOnly");
+        if (!updateBaseline && !reportOnly) {
+            assertComparableWithBaseline();
+        }
+
+        OpenModelLoadGenerator generator = new OpenModelLoadGenerator();
+        for (String entry : parameters.get("mix").split(",")) {
+            String[] parts = entry.trim().split("=");
+            generator.operation(parts[0], Integer.parseInt(parts[1]), operation(parts[0]));
+        }
+
+        OpenModelLoadGenerator.Report report = generator.run(
+                Integer.parseInt(parameters.get("rate")),
+                Duration.ofSeconds(Integer.parseInt(parameters.get("warmupSeconds"))),
+                Duration.ofSeconds(Integer.parseInt(parameters.get("durationSeconds"))));
+        machine().forEach((name, value) -> System.out.printf("machine %s=%s%n", name, value));
+        parameters.forEach((name, value) -> System.out.printf("load %s=%s%n", name, value));
+        report.print(System.out);
+
+        if (updateBaseline) {
+            writeBaseline(report);
+        } else if (!reportOnly) {
+            assertWithinBaseline(report);
+        }
+    }
+
+    private Supplier<CompletableFuture<Integer>> operation(String name) {
+        switch (name) {
+            case "GET":
+                return () -> send(request("/" + randomSeededId()).GET());
+            case "POST":
+                return this::addUser;
+            case "PUT":
+                return () -> send(request("/update/" + randomSeededId())
+                        .header("Content-Type", "application/json")
+                        .PUT(jsonBody(nextUser())));
+            case "DELETE":
+                return this::deleteUser;
+            default:
+                throw new IllegalArgumentException("Unknown operation in load.mix: " + name);
+        }
+    }
+
+    private CompletableFuture<Integer> addUser() {
+        HttpRequest request = request("/add")
+                .header("Content-Type", "application/json")
+                .POST(jsonBody(nextUser()))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+            if (response.statusCode() == 201) {
+                createdIds.add(readId(response.body()));
+            }
+            return response.statusCode();
+        });
+    }
+
+    // deletes users created earlier in the run so the seeded population stays stable
+    private CompletableFuture<Integer> deleteUser() {
+        Long id = createdIds.poll();
+        if (id == null) {
+            return addUser();
+        }
+        return send(request("/delete/" + id).DELETE());
+    }
+
+    private CompletableFuture<Integer> send(HttpRequest.Builder request) {
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .thenApply(HttpResponse::statusCode);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/users" + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", AUTHORIZATION);
+    }
+
+    private HttpRequest.BodyPublisher jsonBody(UserDto userDto) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(userDto));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private UserDto nextUser() {
+        return UserDto.builder()
+                .userName("load-" + userNameSequence.incrementAndGet())
+                .password(TestHelper.PASSWORD)
+                .build();
+    }
+
+    private Long readId(String body) {
+        try {
+            return objectMapper.readValue(body, UserResponse.class).getId();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long randomSeededId() {
+        return ThreadLocalRandom.current().nextLong(1, seededUsers + 1L);
+    }
+
+    private Properties readBaseline() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream(BASELINE_RESOURCE)) {
+            if (in == null) {
+                return null;
+            }
+            Properties properties = new Properties();
+            properties.load(in);
+            return properties;
+        }
+    }
+
+    // explicit -Dload.* values win, then the baseline's, then the defaults
+    private Map<String, String> resolveParameters() {
+        Map<String, String> resolved = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : DEFAULT_PARAMETERS.entrySet()) {
+            String key = "load." + entry.getKey();
+            String fallback = baseline == null ? entry.getValue() : baseline.getProperty(key, entry.getValue());
+            resolved.put(entry.getKey(), System.getProperty(key, fallback));
+        }
+        resolved.put("server", webServerContext.getWebServer().getClass().getSimpleName());
+        return resolved;
+    }
+
+    private Map<String, String> machine() {
+        Runtime runtime = Runtime.getRuntime();
+        Map<String, String> machine = new LinkedHashMap<>();
+        machine.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version"));
+        machine.put("arch", System.getProperty("os.arch"));
+        machine.put("cpus", String.valueOf(runtime.availableProcessors()));
+        machine.put("maxHeapMb", String.valueOf(runtime.maxMemory() / (1024 * 1024)));
+        machine.put("java", System.getProperty("java.vendor") + " " + System.getProperty("java.version"));
+        return machine;
+    }
+
+    private void assertComparableWithBaseline() {
+        assertNotNull("No measured baseline at " + BASELINE_SOURCE
+                + "; measure one on the reference machine with -Dload.updateBaseline=true", baseline);
+
+        List<String> mismatches = new ArrayList<>();
+        parameters.forEach((name, value) -> {
+            String expected = baseline.getProperty("load." + name);
+            if (!value.equals(expected)) {
+                mismatches.add(String.format("load.%s=%s (baseline: %s)", name, value, expected));
+            }
+        });
+        assertTrue("Load parameters differ from the baseline, so latencies are not comparable: " + mismatches
+                + "; drop the overrides or re-measure with -Dload.updateBaseline=true", mismatches.isEmpty());
+
+        machine().forEach((name, value) -> {
+            String expected = baseline.getProperty("machine." + name);
+            if (!value.equals(expected)) {
+                System.out.printf("WARNING: machine.%s=%s but the baseline was measured with %s%n", name, value, expected);
+            }
+        });
+    }
+
+    private void assertWithinBaseline(OpenModelLoadGenerator.Report report) {
+        double tolerance = Double.parseDouble(System.getProperty("load.tolerance",
+                baseline.getProperty("tolerance", "0.25")));
+
+        List<String> regressions = new ArrayList<>();
+        for (String name : report.getHistograms().keySet()) {
+            long requests = report.getHistograms().get(name).getTotalCount();
+            if (requests > 0 && report.getErrors(name) > requests * MAX_ERROR_RATIO) {
+                regressions.add(String.format("%s: %d of %d requests failed", name, report.getErrors(name), requests));
+            }
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                String limit = baseline.getProperty(name + "." + PERCENTILE_KEYS[i]);
+                if (limit == null) {
+                    continue;
+                }
+                double allowedMillis = Double.parseDouble(limit) * (1 + tolerance);
+                double actualMillis = report.getPercentileMillis(name, PERCENTILES[i]);
+                if (actualMillis > allowedMillis) {
+                    regressions.add(String.format("%s %s: %.2f ms > %.2f ms allowed",
+                            name, PERCENTILE_KEYS[i], actualMillis, allowedMillis));
+                }
+            }
+        }
+        assertTrue("Latency regressed past baseline: " + regressions, regressions.isEmpty());
+    }
+
+    private void writeBaseline(OpenModelLoadGenerator.Report report) throws IOException {
+        Properties baseline = new Properties();
+        baseline.setProperty("tolerance", System.getProperty("load.tolerance", "0.25"));
+        machine().forEach((name, value) -> baseline.setProperty("machine." + name, value));
+        parameters.forEach((name, value) -> baseline.setProperty("load." + name, value));
+        for (String name : report.getHistograms().keySet()) {
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                baseline.setProperty(name + "." + PERCENTILE_KEYS[i],
+                        String.format("%.2f", report.getPercentileMillis(name, PERCENTILES[i])));
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(BASELINE_SOURCE)) {
+            baseline.store(out, "Latency baseline in milliseconds, written by UserApiLoadTest");
+        }
+    }
+}
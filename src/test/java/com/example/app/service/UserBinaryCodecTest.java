@@ -0,0 +1,182 @@
+package com.example.app.service;
+
+import com.example.app.TestHelper;
+import com.example.app.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public class UserBinaryCodecTest {
+    private static final int RECORDS = 500;
+    // longest value that fits: 255 characters of 4 UTF-8 bytes each
+    private static final String LONGEST_NAME = "\uD83D\uDE00".repeat(255);
+
+    @Test
+    void testRoundTripAcrossBufferRefills() throws IOException {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            User user = new User(i % 7 == 0 ? LONGEST_NAME : TestHelper.USER_NAME + i,
+                    i % 5 == 0 ? null : "p\u00e4ss" + i);
+            user.setId((long) i * 31);
+            users.add(user);
+        }
+
+        // smallest legal buffers, so records regularly straddle a refill
+        byte[] file = write(users, UserBinaryCodec.MAX_RECORD_BYTES);
+        UserBinaryCodec.Reader reader = new UserBinaryCodec.Reader(
+                trickle(file, 7), UserBinaryCodec.MAX_RECORD_BYTES);
+
+        User read = new User();
+        for (User expected : users) {
+            assertTrue(reader.next(read));
+            assertEquals(expected.getId(), read.getId());
+            assertEquals(expected.getUserName(), read.getUserName());
+            assertEquals(expected.getPassword(), read.getPassword());
+        }
+        assertFalse(reader.next(read));
+        assertEquals(file.length, reader.getBytesRead());
+    }
+
+    @Test
+    void testNullFieldsRoundTrip() throws IOException {
+        User user = new User(null, null);
+        user.setId(42L);
+
+        UserBinaryCodec.Reader reader = new UserBinaryCodec.Reader(
+                Channels.newChannel(new ByteArrayInputStream(write(List.of(user), 64 * 1024))));
+
+        User read = new User();
+        assertTrue(reader.next(read));
+        assertNull(read.getUserName());
+        assertNull(read.getPassword());
+    }
+
+    @Test
+    void testTruncatedRecordIsDetected() throws IOException {
+        User user = new User(TestHelper.USER_NAME, TestHelper.PASSWORD);
+        user.setId(1L);
+        byte[] file = write(List.of(user, user), 64 * 1024);
+
+        UserBinaryCodec.Reader reader = new UserBinaryCodec.Reader(
+                Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(file, file.length - Byte.BYTES - Long.BYTES - 3))));
+
+        assertTrue(reader.next(new User()));
+        assertThrows(EOFException.class, () -> reader.next(new User()));
+    }
+
+    @Test
+    void testFileWithoutEndMarkerIsRejected() throws IOException {
+        User user = new User(TestHelper.USER_NAME, TestHelper.PASSWORD);
+        user.setId(1L);
+        byte[] file = write(List.of(user, user), 64 * 1024);
+
+        // cut exactly at the record boundary, as an export failing mid-stream would
+        UserBinaryCodec.Reader reader = new UserBinaryCodec.Reader(Channels.newChannel(
+                new ByteArrayInputStream(Arrays.copyOf(file, file.length - Byte.BYTES - Long.BYTES))));
+
+        assertTrue(reader.next(new User()));
+        assertTrue(reader.next(new User()));
+        assertThrows(EOFException.class, () -> reader.next(new User()));
+    }
+
+    @Test
+    void testRecordCountMismatchIsRejected() throws IOException {
+        User user = new User(TestHelper.USER_NAME, TestHelper.PASSWORD);
+        user.setId(1L);
+        byte[] file = write(List.of(user, user), 64 * 1024);
+        // claim one more record than the file holds
+        ByteBuffer.wrap(file).putLong(file.length - Long.BYTES, 3L);
+
+        UserBinaryCodec.Reader reader = new UserBinaryCodec.Reader(
+                Channels.newChannel(new ByteArrayInputStream(file)));
+
+        assertTrue(reader.next(new User()));
+        assertTrue(reader.next(new User()));
+        assertThrows(IOException.class, () -> reader.next(new User()));
+    }
+
+    @Test
+    void testBadMagicIsRejected() {
+        byte[] file = {'N', 'O', 'P', 'E', 0, 0, 0, 0, 0, 0, 0, 1};
+
+        assertThrows(IOException.class, () -> new UserBinaryCodec.Reader(
+                Channels.newChannel(new ByteArrayInputStream(file))));
+    }
+
+    @Test
+    void testHostileStringLengthIsRejectedWithoutAllocating() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(UserBinaryCodec.MAGIC);
+        out.writeByte(UserBinaryCodec.RECORD);
+        out.writeLong(1L);
+        out.writeInt(Integer.MAX_VALUE - 8);
+
+        UserBinaryCodec.Reader reader = new UserBinaryCodec.Reader(
+                Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertThrows(IOException.class, () -> reader.next(new User()));
+    }
+
+    @Test
+    void testWriterRejectsOversizedString() {
+        User user = new User(LONGEST_NAME + "x", TestHelper.PASSWORD);
+        user.setId(1L);
+
+        assertThrows(IOException.class, () -> write(List.of(user), 64 * 1024));
+    }
+
+    private static byte[] write(List<User> users, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        UserBinaryCodec.Writer writer = new UserBinaryCodec.Writer(Channels.newChannel(out), bufferSize);
+        for (User user : users) {
+            writer.write(user);
+        }
+        writer.finish();
+        assertEquals(out.size(), writer.getBytesWritten());
+        return out.toByteArray();
+    }
+
+    // a channel that hands out at most chunkSize bytes per read, like a slow socket
+    private static ReadableByteChannel trickle(byte[] data, int chunkSize) {
+        ReadableByteChannel source = Channels.newChannel(new ByteArrayInputStream(data));
+        return new ReadableByteChannel() {
+            @Override
+            public int read(ByteBuffer target) throws IOException {
+                ByteBuffer slice = target.slice();
+                slice.limit(Math.min(slice.limit(), chunkSize));
+                int read = source.read(slice);
+                if (read > 0) {
+                    target.position(target.position() + read);
+                }
+                return read;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return source.isOpen();
+            }
+
+            @Override
+            public void close() throws IOException {
+                source.close();
+            }
+        };
+    }
+}